@@ -0,0 +1,133 @@
+
+package io.github.davidalayachew.benchmarks;
+
+import io.github.davidalayachew.Frequency;
+import io.github.davidalayachew.FrequencyType;
+import io.github.davidalayachew.FrequencyTypeIsType;
+import io.github.davidalayachew.Identifier;
+import io.github.davidalayachew.IdentifierIsAType;
+import io.github.davidalayachew.RulesEngine_Attempt2;
+import io.github.davidalayachew.Type;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//RulesEngine_Attempt2.put for each of its answers -- a mapping it already has, one it can already work out through
+//the rules, and a new one. Every identifier starts out as the bottom of a chain of CHAIN_LENGTH types.
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class Attempt2PutBenchmark
+{
+
+   private static final int CHAIN_LENGTH = 16;
+
+   //made up front, so the benchmark measures the put and not building its argument -- once every one has been put,
+   //newMapping starts over from the first, and from then on measures DirectMappingAlreadyExists instead
+   private static final int NEW_MAPPINGS = 1 << 20;
+
+   @Param({"100", "10000"})
+   public int identifiers;
+
+   private RulesEngine_Attempt2 rulesEngine;
+
+   private IdentifierIsAType[] existingMappings;
+   private IdentifierIsAType[] indirectMappings;
+   private IdentifierIsAType[] newMappings;
+
+   private int next = 0;
+
+   @Setup(Level.Iteration)
+   public void setUp()
+   {
+   
+      this.rulesEngine = new RulesEngine_Attempt2();
+   
+      final Type[] chain = new Type[CHAIN_LENGTH];
+   
+      for (int index = 0; index < CHAIN_LENGTH; index++)
+      {
+      
+         chain[index] = new Type("TYPE" + index);
+      
+         if (index > 0)
+         {
+         
+            this.rulesEngine.put(new FrequencyTypeIsType(new FrequencyType(Frequency.EVERY, chain[index - 1]), chain[index]));
+         
+         }
+      
+      }
+   
+      this.existingMappings = new IdentifierIsAType[this.identifiers];
+      this.indirectMappings = new IdentifierIsAType[this.identifiers];
+   
+      for (int index = 0; index < this.identifiers; index++)
+      {
+      
+         final Identifier identifier = new Identifier("PERSON" + index);
+      
+         this.existingMappings[index] = new IdentifierIsAType(identifier, chain[0]);
+         this.indirectMappings[index] = new IdentifierIsAType(identifier, chain[CHAIN_LENGTH - 1]);
+      
+         this.rulesEngine.put(this.existingMappings[index]);
+      
+      }
+   
+      if (this.newMappings == null)
+      {
+      
+         this.newMappings = new IdentifierIsAType[NEW_MAPPINGS];
+      
+         for (int index = 0; index < NEW_MAPPINGS; index++)
+         {
+         
+            this.newMappings[index] = new IdentifierIsAType(new Identifier("NEWCOMER" + index), chain[index % CHAIN_LENGTH]);
+         
+         }
+      
+      }
+   
+   }
+
+   @Benchmark
+   public RulesEngine_Attempt2.PutResponse existingMapping()
+   {
+   
+      return this.rulesEngine.put(this.existingMappings[this.next++ % this.identifiers]);
+   
+   }
+
+   @Benchmark
+   public RulesEngine_Attempt2.PutResponse indirectMapping()
+   {
+   
+      return this.rulesEngine.put(this.indirectMappings[this.next++ % this.identifiers]);
+   
+   }
+
+   @Benchmark
+   public RulesEngine_Attempt2.PutResponse newMapping()
+   {
+   
+      return this.rulesEngine.put(this.newMappings[this.next++ & (NEW_MAPPINGS - 1)]);
+   
+   }
+
+}
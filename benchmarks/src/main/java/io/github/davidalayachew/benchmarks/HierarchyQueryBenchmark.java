@@ -0,0 +1,245 @@
+
+package io.github.davidalayachew.benchmarks;
+
+import io.github.davidalayachew.Frequency;
+import io.github.davidalayachew.FrequencyType;
+import io.github.davidalayachew.FrequencyTypeIsType;
+import io.github.davidalayachew.HeadlessRulesEngine;
+import io.github.davidalayachew.Identifier;
+import io.github.davidalayachew.IdentifierIsAType;
+import io.github.davidalayachew.IsIdentifierAType;
+import io.github.davidalayachew.Response;
+import io.github.davidalayachew.RulesEngine_Attempt2;
+import io.github.davidalayachew.Type;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//IS questions against type hierarchies of different shapes and sizes, all built so that DAVID is only indirectly the goal --
+//
+//   CHAIN    DAVID is TYPE0, and every TYPEn is a TYPEn+1, up to the goal
+//   FAN_OUT  DAVID is every one of TYPE0 to TYPEn, and only the last of those is a GOAL
+//   DIAMOND  DAVID is A0, and every An and Bn is both an An+1 and a Bn+1, so there are 2^depth paths to the goal
+//
+//A hit is answered CORRECT, and a miss FALL_THROUGH -- the miss asks about a type that is known, but unrelated to DAVID.
+//The headless engine remembers its answers until the next write, so with cached, headlessHit and headlessMiss measure its query
+//cache. Without it, they -- like headlessBatch always does -- go through the hierarchy every time, or, with forwardChaining, read
+//what the engine derived as the facts arrived.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HierarchyQueryBenchmark
+{
+
+   public enum Shape
+   {
+   
+      CHAIN,
+      FAN_OUT,
+      DIAMOND,
+      ;
+   
+   }
+
+   private static final Identifier DAVID = new Identifier("DAVID");
+   private static final Type OTHER = new Type("OTHER");
+
+   @Param
+   public Shape shape;
+
+   //the number of types in the hierarchy
+   @Param({"10", "100", "1000"})
+   public int size;
+
+   @Param({"false", "true"})
+   public boolean forwardChaining;
+
+   @Param({"false", "true"})
+   public boolean cached;
+
+   private HeadlessRulesEngine headlessRulesEngine;
+   private RulesEngine_Attempt2.Snapshot snapshot;
+
+   private IsIdentifierAType hit;
+   private IsIdentifierAType miss;
+   private List<IsIdentifierAType> both;
+
+   @Setup
+   public void setUp()
+   {
+   
+      this.headlessRulesEngine = new HeadlessRulesEngine(this.forwardChaining);
+   
+      final RulesEngine_Attempt2 rulesEngine = new RulesEngine_Attempt2();
+   
+      final Type goal =
+         switch (this.shape)
+         {
+         
+            case CHAIN ->
+            {
+            
+               this.isA(rulesEngine, type(0));
+            
+               for (int index = 1; index < this.size; index++)
+               {
+               
+                  this.every(rulesEngine, type(index - 1), type(index));
+               
+               }
+            
+               yield type(this.size - 1);
+            
+            }
+         
+            case FAN_OUT ->
+            {
+            
+               for (int index = 0; index < this.size; index++)
+               {
+               
+                  this.isA(rulesEngine, type(index));
+               
+               }
+            
+               this.every(rulesEngine, type(this.size - 1), new Type("GOAL"));
+            
+               yield new Type("GOAL");
+            
+            }
+         
+            case DIAMOND ->
+            {
+            
+               final int depth = Math.max(1, this.size / 2);
+            
+               this.isA(rulesEngine, new Type("A0"));
+            
+               for (int level = 1; level < depth; level++)
+               {
+               
+                  for (final String from : new String[] {"A", "B"})
+                  {
+                  
+                     this.every(rulesEngine, new Type(from + (level - 1)), new Type("A" + level));
+                     this.every(rulesEngine, new Type(from + (level - 1)), new Type("B" + level));
+                  
+                  }
+               
+               }
+            
+               yield new Type("A" + (depth - 1));
+            
+            }
+         
+         };
+   
+      this.every(rulesEngine, new Type("UNRELATED"), OTHER);
+   
+      this.snapshot = rulesEngine.snapshot();
+   
+      this.hit = new IsIdentifierAType(DAVID, goal);
+      this.miss = new IsIdentifierAType(DAVID, OTHER);
+      this.both = List.of(this.hit, this.miss);
+   
+      if (this.headlessRulesEngine.processIsIdentifierAType(this.hit) != Response.CORRECT || !this.snapshot.containsIndirectIsMapping(DAVID, goal))
+      {
+      
+         throw new IllegalStateException("The " + this.shape + " hierarchy was built wrong");
+      
+      }
+   
+   }
+
+   @Benchmark
+   public Response headlessHit()
+   {
+   
+      return
+         this.cached
+            ?  this.headlessRulesEngine.processIsIdentifierAType(this.hit)
+            :  this.headlessRulesEngine.answerIsIdentifierAType(this.hit)
+            ;
+   
+   }
+
+   @Benchmark
+   public Response headlessMiss()
+   {
+   
+      return
+         this.cached
+            ?  this.headlessRulesEngine.processIsIdentifierAType(this.miss)
+            :  this.headlessRulesEngine.answerIsIdentifierAType(this.miss)
+            ;
+   
+   }
+
+   @Benchmark
+   public List<Response> headlessBatch()
+   {
+   
+      return this.headlessRulesEngine.processIsIdentifierATypes(this.both);
+   
+   }
+
+   @Benchmark
+   public boolean snapshotHit()
+   {
+   
+      return this.snapshot.containsIndirectIsMapping(this.hit.identifier(), this.hit.type());
+   
+   }
+
+   @Benchmark
+   public boolean snapshotMiss()
+   {
+   
+      return this.snapshot.containsIndirectIsMapping(this.miss.identifier(), this.miss.type());
+   
+   }
+
+   private void isA(final RulesEngine_Attempt2 rulesEngine, final Type type)
+   {
+   
+      final IdentifierIsAType fact = new IdentifierIsAType(DAVID, type);
+   
+      this.headlessRulesEngine.submit(fact);
+      rulesEngine.put(fact);
+   
+   }
+
+   private void every(final RulesEngine_Attempt2 rulesEngine, final Type subType, final Type superType)
+   {
+   
+      final FrequencyTypeIsType fact = new FrequencyTypeIsType(new FrequencyType(Frequency.EVERY, subType), superType);
+   
+      this.headlessRulesEngine.submit(fact);
+      rulesEngine.put(fact);
+   
+   }
+
+   private static Type type(final int index)
+   {
+   
+      return new Type("TYPE" + index);
+   
+   }
+
+}
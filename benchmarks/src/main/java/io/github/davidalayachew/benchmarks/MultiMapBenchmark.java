@@ -0,0 +1,108 @@
+
+package io.github.davidalayachew.benchmarks;
+
+import io.github.davidalayachew.Identifier;
+import io.github.davidalayachew.MultiMap;
+import io.github.davidalayachew.Type;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//MultiMap.add and get on a map already holding the given number of keys, with and without the value -> keys index.
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MultiMapBenchmark
+{
+
+   private static final int TYPES = 64;
+
+   @Param({"1000", "100000"})
+   public int keys;
+
+   @Param({"false", "true"})
+   public boolean reverseIndex;
+
+   private Identifier[] identifiers;
+   private Type[] types;
+
+   private MultiMap<Identifier, Type> multiMap;
+
+   private int next = 0;
+
+   @Setup(Level.Iteration)
+   public void setUp()
+   {
+   
+      this.identifiers = new Identifier[this.keys];
+      this.types = new Type[TYPES];
+   
+      for (int index = 0; index < TYPES; index++)
+      {
+      
+         this.types[index] = new Type("TYPE" + index);
+      
+      }
+   
+      this.multiMap = this.reverseIndex ? MultiMap.withReverseIndex() : new MultiMap<>();
+   
+      for (int index = 0; index < this.keys; index++)
+      {
+      
+         this.identifiers[index] = new Identifier("PERSON" + index);
+      
+         this.multiMap.add(this.identifiers[index], this.types[index % TYPES]);
+         this.multiMap.add(this.identifiers[index], this.types[index * 7 % TYPES]);
+      
+      }
+   
+   }
+
+   //mostly new values for keys that already exist, as the same key comes back around with a different type
+   @Benchmark
+   public MultiMap.PutResponse add()
+   {
+   
+      final int index = this.next++;
+   
+      return this.multiMap.add(this.identifiers[index % this.keys], this.types[(index / this.keys) % TYPES]);
+   
+   }
+
+   @Benchmark
+   public Optional<Set<Type>> get()
+   {
+   
+      return this.multiMap.get(this.identifiers[this.next++ % this.keys]);
+   
+   }
+
+   @Benchmark
+   public boolean containsMapping()
+   {
+   
+      final int index = this.next++;
+   
+      return this.multiMap.containsMapping(this.identifiers[index % this.keys], this.types[index % TYPES]);
+   
+   }
+
+}
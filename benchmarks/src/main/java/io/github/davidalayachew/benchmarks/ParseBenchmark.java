@@ -0,0 +1,108 @@
+
+package io.github.davidalayachew.benchmarks;
+
+import io.github.davidalayachew.ClassParser;
+import io.github.davidalayachew.Normalizer;
+import io.github.davidalayachew.Parseable;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//ClassParser.parse, once per kind of sentence -- on text that is already normalized, and on raw text the way a user types it.
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParseBenchmark
+{
+
+   public enum Kind
+   {
+   
+      IDENTIFIER_IS_A_TYPE,
+      FREQUENCY_TYPE_IS_TYPE,
+      IDENTIFIER_HAS_QUANTITY_TYPE,
+      FREQUENCY_TYPE_HAS_QUANTITY_TYPE,
+      IS_IDENTIFIER_A_TYPE,
+      INVALID,
+      ;
+   
+   }
+
+   //a power of 2, so picking the next sentence is a mask
+   private static final int SENTENCES = 1024;
+
+   @Param
+   public Kind kind;
+
+   private final String[] normalized = new String[SENTENCES];
+   private final String[] raw = new String[SENTENCES];
+
+   private final Normalizer normalizer = new Normalizer();
+
+   private int next = 0;
+
+   @Setup
+   public void setUp()
+   {
+   
+      for (int index = 0; index < SENTENCES; index++)
+      {
+      
+         this.normalized[index] = sentence(this.kind, index);
+         this.raw[index] = "  " + this.normalized[index].toLowerCase().replace(" ", "   ") + " ";
+      
+      }
+   
+   }
+
+   @Benchmark
+   public Optional<? extends Parseable> parse()
+   {
+   
+      return ClassParser.parse(this.normalized[this.next++ & (SENTENCES - 1)]);
+   
+   }
+
+   @Benchmark
+   public Optional<? extends Parseable> normalizeAndParse()
+   {
+   
+      return ClassParser.parse(this.normalizer.normalize(this.raw[this.next++ & (SENTENCES - 1)]));
+   
+   }
+
+   private static String sentence(final Kind kind, final int index)
+   {
+   
+      return
+         switch (kind)
+         {
+         
+            case IDENTIFIER_IS_A_TYPE              -> "PERSON" + index + " IS A TYPE" + index % 37;
+            case FREQUENCY_TYPE_IS_TYPE            -> "EVERY TYPE" + index + " IS A TYPE" + (index + 1);
+            case IDENTIFIER_HAS_QUANTITY_TYPE      -> "PERSON" + index + " HAS " + (index % 9 + 2) + " LEG" + index % 13;
+            case FREQUENCY_TYPE_HAS_QUANTITY_TYPE  -> "EVERY TYPE" + index + " HAS " + (index % 9 + 2) + " LEG" + index % 13;
+            case IS_IDENTIFIER_A_TYPE              -> "IS PERSON" + index + " A TYPE" + index % 37 + "?";
+            case INVALID                           -> "PERSON" + index + " IS IS A TYPE" + index % 37;
+         
+         };
+   
+   }
+
+}
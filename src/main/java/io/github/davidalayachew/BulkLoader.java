@@ -0,0 +1,280 @@
+
+package io.github.davidalayachew;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+//Loads a whole file of sentences -- one per line -- into a HeadlessRulesEngine.
+//The file is memory mapped and cut into chunks at line boundaries. Chunks are normalized and parsed
+//in parallel on a ForkJoinPool, but only the calling thread ever touches the engine, applying every
+//chunk in file order, so the result is the same as typing the lines in one at a time.
+
+public class BulkLoader
+{
+
+   public record LineError(long lineNumber, String text) {}
+
+   public record Report(long lines, long bytes, long nanos, Map<Response, Long> responses, long errorCount, List<LineError> errors)
+   {
+   
+      public double linesPerSecond()
+      {
+      
+         return this.nanos == 0 ? 0 : this.lines * 1_000_000_000.0 / this.nanos;
+      
+      }
+   
+      public double megabytesPerSecond()
+      {
+      
+         return this.nanos == 0 ? 0 : this.bytes * 1_000.0 / this.nanos;
+      
+      }
+   
+   }
+
+   //one line per entry, null when the line was blank or could not be parsed
+   private record ParsedChunk(Parseable[] parseables, List<LineError> errors) {}
+
+   private static final int DEFAULT_CHUNK_BYTES = 4 * 1024 * 1024;
+
+   //only the first errors keep their text, so a file of garbage cannot run us out of memory
+   private static final int MAX_REPORTED_ERRORS = 1_000;
+
+   private final HeadlessRulesEngine engine;
+   private final ForkJoinPool pool;
+   private final int chunkBytes;
+
+   public BulkLoader(final HeadlessRulesEngine engine)
+   {
+   
+      this(engine, ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+   
+   }
+
+   public BulkLoader(final HeadlessRulesEngine engine, final ForkJoinPool pool, final int chunkBytes)
+   {
+   
+      this.engine = Objects.requireNonNull(engine);
+      this.pool = Objects.requireNonNull(pool);
+   
+      if (chunkBytes <= 0)
+      {
+      
+         throw new IllegalArgumentException("chunkBytes must be positive -- " + chunkBytes);
+      
+      }
+   
+      this.chunkBytes = chunkBytes;
+   
+   }
+
+   public BulkLoader.Report load(final Path path) throws IOException
+   {
+   
+      final long startNanos = System.nanoTime();
+   
+      final Map<Response, Long> responses = new EnumMap<>(Response.class);
+      final List<LineError> errors = new ArrayList<>();
+   
+      long lines = 0;
+      long errorCount = 0;
+      long size;
+   
+      try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+      {
+      
+         size = channel.size();
+      
+         //enough chunks to keep every worker busy while this thread is applying the oldest one
+         final int maxChunksInFlight = this.pool.getParallelism() * 2;
+      
+         final Deque<ForkJoinTask<ParsedChunk>> inFlight = new ArrayDeque<>();
+      
+         long start = 0;
+      
+         while (start < size || !inFlight.isEmpty())
+         {
+         
+            while (start < size && inFlight.size() < maxChunksInFlight)
+            {
+            
+               final long end = lineBoundaryAtOrAfter(channel, Math.min(size, start + this.chunkBytes), size);
+            
+               if (end - start > Integer.MAX_VALUE)
+               {
+               
+                  throw new IOException("Line starting at byte " + start + " is too long to load");
+               
+               }
+            
+               final ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            
+               inFlight.addLast(this.pool.submit(() -> parseChunk(chunk)));
+            
+               start = end;
+            
+            }
+         
+            final ParsedChunk parsedChunk = inFlight.removeFirst().join();
+         
+            for (final LineError error : parsedChunk.errors())
+            {
+            
+               errorCount++;
+            
+               if (errors.size() < MAX_REPORTED_ERRORS)
+               {
+               
+                  errors.add(new LineError(lines + error.lineNumber(), error.text()));
+               
+               }
+            
+            }
+         
+            //a single writer never has anyone to share a force with, so the whole chunk shares one instead
+            long lastSequence = 0;
+         
+            for (final Parseable parseable : parsedChunk.parseables())
+            {
+            
+               if (parseable != null)
+               {
+               
+                  final HeadlessRulesEngine.Deferred deferred = this.engine.submitDeferred(parseable);
+               
+                  responses.merge(deferred.response(), 1L, Long::sum);
+               
+                  lastSequence = Math.max(lastSequence, deferred.sequence());
+               
+               }
+            
+            }
+         
+            this.engine.awaitDurable(lastSequence);
+         
+            lines += parsedChunk.parseables().length;
+         
+         }
+      
+      }
+   
+      return new BulkLoader.Report(lines, size, System.nanoTime() - startNanos, Collections.unmodifiableMap(responses), errorCount, Collections.unmodifiableList(errors));
+   
+   }
+
+   private static ParsedChunk parseChunk(final ByteBuffer chunk)
+   {
+   
+      final Normalizer normalizer = new Normalizer();
+   
+      final List<Parseable> parseables = new ArrayList<>();
+      final List<LineError> errors = new ArrayList<>();
+   
+      final int limit = chunk.limit();
+   
+      int lineStart = 0;
+   
+      for (int index = 0; index < limit; index++)
+      {
+      
+         if (chunk.get(index) == '\n' || index == limit - 1)
+         {
+         
+            final int lineEnd = chunk.get(index) == '\n' ? index : limit;
+         
+            chunk.limit(lineEnd).position(lineStart);
+         
+            final CharSequence text = normalizer.normalize(chunk);
+         
+            chunk.limit(limit).position(0);
+         
+            final Parseable parseable =
+               text.length() == 0
+                  ?  null
+                  :  ClassParser.parse(text).orElse(null)
+                  ;
+         
+            if (parseable == null && text.length() > 0)
+            {
+            
+               //line numbers start at 1, and are relative to the chunk until the writer offsets them
+               errors.add(new LineError(parseables.size() + 1, text.toString()));
+            
+            }
+         
+            parseables.add(parseable);
+         
+            lineStart = index + 1;
+         
+         }
+      
+      }
+   
+      return new ParsedChunk(parseables.toArray(new Parseable[0]), errors);
+   
+   }
+
+   //The position just past the first newline at or after the given position, or the end of the file
+   private static long lineBoundaryAtOrAfter(final FileChannel channel, final long position, final long size) throws IOException
+   {
+   
+      if (position >= size || position == 0)
+      {
+      
+         return position;
+      
+      }
+   
+      final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+   
+      long offset = position - 1;
+   
+      while (offset < size)
+      {
+      
+         buffer.clear();
+      
+         final int read = channel.read(buffer, offset);
+      
+         for (int index = 0; index < read; index++)
+         {
+         
+            if (buffer.get(index) == '\n')
+            {
+            
+               return offset + index + 1;
+            
+            }
+         
+         }
+      
+         offset += Math.max(read, 0);
+      
+         if (read <= 0)
+         {
+         
+            break;
+         
+         }
+      
+      }
+   
+      return size;
+   
+   }
+
+}
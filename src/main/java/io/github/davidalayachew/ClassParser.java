@@ -1,129 +1,336 @@
 package io.github.davidalayachew;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-   public final class ClassParser
+public final class ClassParser
+{
+
+   private ClassParser() {throw new UnsupportedOperationException();}
+
+   //The longest sentence -- HOW MANY ARMS DOES DAVID HAVE? -- is 6 words long
+   private static final int MAX_WORDS = 6;
+
+   //What a single word is allowed to be, worked out while the word is being read
+   //Every TYPE is also an IDENTIFIER, since identifiers only add underscores
+   private static final int IDENTIFIER = 1;
+   private static final int TYPE       = 1 << 1;
+   private static final int QUANTITY   = 1 << 2;
+
+   private static final int MAX_QUANTITY_DIGITS = 7;
+
+   private record Words(CharSequence text, int count, int[] starts, int[] ends, int[] kinds)
    {
    
-      private ClassParser() {throw new UnsupportedOperationException();}
-   
-      private static final Map<Pattern, Function<List<String>, Parseable>> map = createMap();
+      boolean is(final int index, final int kind)
+      {
+      
+         return (this.kinds[index] & kind) != 0;
+      
+      }
    
-      private static Map<Pattern, Function<List<String>, Parseable>> createMap()
+      boolean isKeyword(final int index, final String keyword)
       {
       
-         Map<Pattern, Function<List<String>, Parseable>> map = new HashMap<>();
+         final int start = this.starts[index];
       
-         for (Class<?> each : Parseable.class.getPermittedSubclasses())
+         if (this.ends[index] - start != keyword.length())
          {
          
-            @SuppressWarnings("unchecked")
-               Class<? extends Parseable> temp = (Class<Parseable>)each;
+            return false;
          
-            try
-            {
-            
-               List<String> strings =
-                  switch (each.getSimpleName())
-                  {
-                  
-                     case "Identifier"                   -> List.of("A");
-                     case "Type"                         -> List.of("A");
-                     case "Quantity", "QuantityType"     -> List.of("1", "A");
-                     case "IdentifierHasQuantityType"    -> List.of("A", "1", "A");
-                     case "IdentifierIsAType"            -> List.of("A", "A");
-                     case "FrequencyType"                -> List.of("EVERY", "A", "A");
-                     case "FrequencyTypeRelationship"    -> List.of("EVERY", "A", "IS A");
-                     case "FrequencyTypeHasQuantityType" -> List.of("EVERY", "A", "1", "A");
-                     case "FrequencyTypeIsType"          -> List.of("EVERY", "A", "A");
-                     case "IsIdentifierAType"            -> List.of("EVERY", "A");
-                     default                             -> throw new IllegalArgumentException("Forgot to update this method!");
-                  
-                  };
-            
-               Constructor<? extends Parseable> constructor = temp.getConstructor(List.class);
-               Parseable godForgiveMe = constructor.newInstance(strings);
-            
-            
-               switch (godForgiveMe)
-               {
-               
-                  case Identifier i                         -> map.put(Identifier.regex, Identifier::new);
-                  case Type t                               -> map.put(Type.regex, Type::new);
-                  case Quantity q                           -> map.put(Quantity.regex, Quantity::new);
-                  case QuantityType qt                      -> map.put(QuantityType.regex, QuantityType::new);
-                  case IdentifierHasQuantityType ihqt       -> map.put(IdentifierHasQuantityType.regex, IdentifierHasQuantityType::new);
-                  case IdentifierIsAType iiat               -> map.put(IdentifierIsAType.regex, IdentifierIsAType::new);
-                  case FrequencyType ft                     -> map.put(FrequencyType.regex, FrequencyType::new);
-                  case FrequencyTypeRelationship ftr        -> map.put(FrequencyTypeRelationship.regex, FrequencyTypeRelationship::new);
-                  case FrequencyTypeHasQuantityType fthqt   -> map.put(FrequencyTypeHasQuantityType.regex, FrequencyTypeHasQuantityType::new);
-                  case FrequencyTypeIsType ftit             -> map.put(FrequencyTypeIsType.regex, FrequencyTypeIsType::new);
-                  case IsIdentifierAType iiat               -> map.put(IsIdentifierAType.regex, IsIdentifierAType::new);
-               
-               }
-            
-            }
-            
-            catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException exception)
+         }
+      
+         for (int i = 0; i < keyword.length(); i++)
+         {
+         
+            if (this.text.charAt(start + i) != keyword.charAt(i))
             {
             
-               throw new IllegalStateException(exception);
+               return false;
             
             }
          
          }
       
-         return Collections.unmodifiableMap(map);
+         return true;
       
       }
    
-      public static final Optional<? extends Parseable> parse(String text)
+      boolean isArticle(final int index)
       {
       
-         for (Map.Entry<Pattern, Function<List<String>, Parseable>> each : map.entrySet())
+         return this.isKeyword(index, "A") || this.isKeyword(index, "AN");
+      
+      }
+   
+      Frequency frequency(final int index)
+      {
+      
+         for (final Frequency frequency : Frequency.values())
          {
          
-            Pattern regex = each.getKey();
-         
-            Matcher match = regex.matcher(text);
-         
-            if (match.matches())
+            if (this.isKeyword(index, frequency.name()))
             {
             
-               return Optional.of(each.getValue().apply(fetchGroups(match)));
+               return frequency;
             
             }
          
          }
       
+         return null;
+      
+      }
+   
+      String string(final int index)
+      {
+      
+         return this.text.subSequence(this.starts[index], this.ends[index]).toString();
+      
+      }
+   
+      Identifier identifier(final int index)
+      {
+      
+         return new Identifier(this.string(index));
+      
+      }
+   
+      Type type(final int index)
+      {
+      
+         return new Type(this.string(index));
+      
+      }
+   
+      Quantity quantity(final int index)
+      {
+      
+         return new Quantity(this.isKeyword(index, "A") ? 1 : Long.parseLong(this.text, this.starts[index], this.ends[index], 10));
+      
+      }
+   
+      QuantityType quantityType(final int index)
+      {
+      
+         return new QuantityType(this.quantity(index), this.type(index + 1));
+      
+      }
+   
+      FrequencyType frequencyType(final int index)
+      {
+      
+         return new FrequencyType(this.frequency(index), this.type(index + 1));
+      
+      }
+   
+   }
+
+   //Reads the text once, splitting it into words and working out what each word could be,
+   //then picks the sentence by looking at the keywords in fixed positions -- no regex, no backtracking,
+   //and the same answer every time for the sentences that more than one form would accept.
+   public static final Optional<? extends Parseable> parse(final CharSequence text)
+   {
+   
+      final Words words = split(text);
+   
+      if (words == null)
+      {
+      
          return Optional.empty();
       
       }
    
-   private static final List<String> fetchGroups(Matcher match)
+      final boolean question = text.length() > 0 && text.charAt(text.length() - 1) == '?';
+   
+      return Optional.ofNullable(question ? parseQuestion(words) : parseStatement(words));
+   
+   }
+
+   private static Words split(final CharSequence text)
    {
    
-      List<String> groups = new ArrayList<>();
+      final int[] starts = new int[MAX_WORDS];
+      final int[] ends = new int[MAX_WORDS];
+      final int[] kinds = new int[MAX_WORDS];
    
-      for (int i = 1; i <= match.groupCount(); i++)
+      final int length =
+         text.length() > 0 && text.charAt(text.length() - 1) == '?'
+            ?  text.length() - 1
+            :  text.length()
+            ;
+   
+      int count = 0;
+      int start = 0;
+   
+      boolean letters = true;       //only letters so far
+      boolean alphanumeric = true;  //a letter followed by only letters and digits
+      boolean identifier = true;    //alphanumeric, but single underscores are allowed in between
+      boolean digits = true;        //only digits
+      boolean underscore = false;   //the last character was an underscore
+   
+      for (int index = 0; index <= length; index++)
       {
       
-         groups.add(match.group(i));
+         final char character = index < length ? text.charAt(index) : ' ';
+      
+         if (character == ' ')
+         {
+         
+            if (index == start || count == MAX_WORDS)
+            {
+            
+               return null;
+            
+            }
+         
+            final int size = index - start;
+         
+            starts[count] = start;
+            ends[count] = index;
+            kinds[count] =
+               (identifier && !underscore                                  ? IDENTIFIER   : 0)
+               | (alphanumeric                                            ? TYPE         : 0)
+               | ((digits && size <= MAX_QUANTITY_DIGITS) || (letters && size == 1 && text.charAt(start) == 'A') ? QUANTITY : 0)
+               ;
+            count++;
+         
+            start = index + 1;
+            letters = alphanumeric = identifier = digits = true;
+            underscore = false;
+         
+            continue;
+         
+         }
+      
+         final boolean isLetter = (character >= 'A' && character <= 'Z') || (character >= 'a' && character <= 'z');
+         final boolean isDigit = character >= '0' && character <= '9';
+         final boolean isFirst = index == start;
+      
+         letters &= isLetter;
+         digits &= isDigit;
+         alphanumeric &= isFirst ? isLetter : isLetter || isDigit;
+         identifier &=
+            isFirst
+               ?  isLetter
+               :  isLetter || isDigit || (character == '_' && !underscore)
+               ;
+         underscore = character == '_';
       
       }
    
-      return groups;
+      return new Words(text, count, starts, ends, kinds);
+   
+   }
+
+   //IS DAVID A MAN?    DAVID IS A MAN?    WHAT IS DAVID?    WHO IS A MAN?    HOW MANY ARMS DOES DAVID HAVE?    --- A/AN is optional
+   private static Parseable parseQuestion(final Words words)
+   {
+   
+      return
+         switch (words.count())
+         {
+         
+            case 3 ->
+               words.isKeyword(0, "WHAT") && words.isKeyword(1, "IS") && words.is(2, IDENTIFIER)
+                  ?  new WhatIsIdentifier(words.identifier(2))
+                  :  words.isKeyword(0, "WHO") && words.isKeyword(1, "IS") && words.is(2, TYPE)
+                  ?  new WhoIsAType(words.type(2))
+                  :  words.isKeyword(0, "IS") && words.is(1, IDENTIFIER) && words.is(2, TYPE)
+                  ?  new IsIdentifierAType(words.identifier(1), words.type(2))
+                  :  words.is(0, IDENTIFIER) && words.isKeyword(1, "IS") && words.is(2, TYPE)
+                  ?  new IsIdentifierAType(words.identifier(0), words.type(2))
+                  :  null
+                  ;
+         
+            case 4 ->
+               words.isKeyword(0, "WHO") && words.isKeyword(1, "IS") && words.isArticle(2) && words.is(3, TYPE)
+                  ?  new WhoIsAType(words.type(3))
+                  :  words.isKeyword(0, "IS") && words.is(1, IDENTIFIER) && words.isArticle(2) && words.is(3, TYPE)
+                  ?  new IsIdentifierAType(words.identifier(1), words.type(3))
+                  :  words.is(0, IDENTIFIER) && words.isKeyword(1, "IS") && words.isArticle(2) && words.is(3, TYPE)
+                  ?  new IsIdentifierAType(words.identifier(0), words.type(3))
+                  :  null
+                  ;
+         
+            case 6 ->
+               words.isKeyword(0, "HOW") && words.isKeyword(1, "MANY") && words.is(2, TYPE) && words.isKeyword(3, "DOES") && words.is(4, IDENTIFIER) && words.isKeyword(5, "HAVE")
+                  ?  new HowManyTypeDoesIdentifierHave(words.type(2), words.identifier(4))
+                  :  null
+                  ;
+         
+            default -> null;
+         
+         };
    
    }
 
+   private static Parseable parseStatement(final Words words)
+   {
+   
+      final Frequency frequency = words.frequency(0);
+   
+      return
+         switch (words.count())
+         {
+         
+            //DAVID    7
+            case 1 ->
+               words.is(0, IDENTIFIER)
+                  ?  words.identifier(0)
+                  :  words.is(0, QUANTITY)
+                  ?  words.quantity(0)
+                  :  null
+                  ;
+         
+            //EVERY MAN    2 ARMS
+            case 2 ->
+               frequency != null && words.is(1, TYPE)
+                  ?  words.frequencyType(0)
+                  :  words.is(0, QUANTITY) && words.is(1, TYPE)
+                  ?  words.quantityType(0)
+                  :  null
+                  ;
+         
+            //IS DAVID MAN    EVERY MAN HAS    DAVID IS MAN
+            case 3 ->
+               words.isKeyword(0, "IS") && words.is(1, IDENTIFIER) && words.is(2, TYPE)
+                  ?  new IsIdentifierAType(words.identifier(1), words.type(2))
+                  :  frequency != null && words.is(1, TYPE) && words.isKeyword(2, "HAS")
+                  ?  new FrequencyTypeRelationship(words.frequencyType(0), Relationship.HAS)
+                  :  words.is(0, IDENTIFIER) && words.isKeyword(1, "IS") && words.is(2, TYPE)
+                  ?  new IdentifierIsAType(words.identifier(0), words.type(2))
+                  :  null
+                  ;
+         
+            //IS DAVID A MAN    EVERY MAN IS A    EVERY MAN IS MORTAL    DAVID IS A MAN    DAVID HAS 2 ARMS
+            case 4 ->
+               words.isKeyword(0, "IS") && words.is(1, IDENTIFIER) && words.isArticle(2) && words.is(3, TYPE)
+                  ?  new IsIdentifierAType(words.identifier(1), words.type(3))
+                  :  frequency != null && words.is(1, TYPE) && words.isKeyword(2, "IS") && words.isKeyword(3, "A")
+                  ?  new FrequencyTypeRelationship(words.frequencyType(0), Relationship.IS_A)
+                  :  frequency != null && words.is(1, TYPE) && words.isKeyword(2, "IS") && words.is(3, TYPE)
+                  ?  new FrequencyTypeIsType(words.frequencyType(0), words.type(3))
+                  :  words.is(0, IDENTIFIER) && words.isKeyword(1, "IS") && words.isArticle(2) && words.is(3, TYPE)
+                  ?  new IdentifierIsAType(words.identifier(0), words.type(3))
+                  :  words.is(0, IDENTIFIER) && words.isKeyword(1, "HAS") && words.is(2, QUANTITY) && words.is(3, TYPE)
+                  ?  new IdentifierHasQuantityType(words.identifier(0), words.quantityType(2))
+                  :  null
+                  ;
+         
+            //EVERY MAN IS A MORTAL    EVERY MAN HAS 2 ARMS
+            case 5 ->
+               frequency != null && words.is(1, TYPE) && words.isKeyword(2, "IS") && words.isArticle(3) && words.is(4, TYPE)
+                  ?  new FrequencyTypeIsType(words.frequencyType(0), words.type(4))
+                  :  frequency != null && words.is(1, TYPE) && words.isKeyword(2, "HAS") && words.is(3, QUANTITY) && words.is(4, TYPE)
+                  ?  new FrequencyTypeHasQuantityType(words.frequencyType(0), words.quantityType(3))
+                  :  null
+                  ;
+         
+            default -> null;
+         
+         };
+   
    }
+
+}
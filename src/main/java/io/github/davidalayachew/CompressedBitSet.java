@@ -0,0 +1,438 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+//An immutable set of non-negative ints, split into chunks of 65536 values the way a roaring bitmap does.
+//Each chunk is stored as a sorted array while it is sparse, and as a plain bitmap once it is dense,
+//so membership is a binary search plus one word, and a union is a walk over the words.
+
+public final class CompressedBitSet
+{
+
+   private sealed interface Container
+   {
+   
+      boolean contains(char low);
+   
+      int cardinality();
+   
+      void forEach(int high, IntConsumer action);
+   
+   }
+
+   private record ArrayContainer(char[] values) implements Container
+   {
+   
+      public boolean contains(final char low)
+      {
+      
+         return Arrays.binarySearch(this.values, low) >= 0;
+      
+      }
+   
+      public int cardinality()
+      {
+      
+         return this.values.length;
+      
+      }
+   
+      public void forEach(final int high, final IntConsumer action)
+      {
+      
+         for (final char low : this.values)
+         {
+         
+            action.accept(high | low);
+         
+         }
+      
+      }
+   
+   }
+
+   private record BitmapContainer(long[] words, int cardinality) implements Container
+   {
+   
+      public boolean contains(final char low)
+      {
+      
+         return (this.words[low >>> 6] & (1L << low)) != 0;
+      
+      }
+   
+      public void forEach(final int high, final IntConsumer action)
+      {
+      
+         for (int index = 0; index < this.words.length; index++)
+         {
+         
+            long word = this.words[index];
+         
+            while (word != 0)
+            {
+            
+               action.accept(high | (index << 6) | Long.numberOfTrailingZeros(word));
+            
+               word &= word - 1;
+            
+            }
+         
+         }
+      
+      }
+   
+   }
+
+   //past this many values, a bitmap (8 KB) is smaller than an array of chars
+   private static final int ARRAY_LIMIT = 4096;
+
+   private static final int BITMAP_WORDS = 1024;
+
+   public static final CompressedBitSet EMPTY = new CompressedBitSet(new char[0], new Container[0]);
+
+   private final char[] keys;
+   private final Container[] containers;
+
+   private CompressedBitSet(final char[] keys, final Container[] containers)
+   {
+   
+      this.keys = keys;
+      this.containers = containers;
+   
+   }
+
+   public static CompressedBitSet of(final int... values)
+   {
+   
+      final int[] sorted = values.clone();
+   
+      Arrays.sort(sorted);
+   
+      if (sorted.length > 0 && sorted[0] < 0)
+      {
+      
+         throw new IllegalArgumentException("Only non-negative values are allowed -- " + sorted[0]);
+      
+      }
+   
+      final char[] keys = new char[sorted.length];
+      final Container[] containers = new Container[sorted.length];
+   
+      int count = 0;
+      int start = 0;
+   
+      while (start < sorted.length)
+      {
+      
+         final int high = sorted[start] >>> 16;
+      
+         int end = start;
+      
+         while (end < sorted.length && sorted[end] >>> 16 == high)
+         {
+         
+            end++;
+         
+         }
+      
+         keys[count] = (char) high;
+         containers[count] = containerOf(sorted, start, end);
+         count++;
+      
+         start = end;
+      
+      }
+   
+      return new CompressedBitSet(Arrays.copyOf(keys, count), Arrays.copyOf(containers, count));
+   
+   }
+
+   public boolean contains(final int value)
+   {
+   
+      if (value < 0)
+      {
+      
+         return false;
+      
+      }
+   
+      final int index = Arrays.binarySearch(this.keys, (char) (value >>> 16));
+   
+      return index >= 0 && this.containers[index].contains((char) value);
+   
+   }
+
+   public CompressedBitSet or(final CompressedBitSet other)
+   {
+   
+      if (other.keys.length == 0)
+      {
+      
+         return this;
+      
+      }
+   
+      if (this.keys.length == 0)
+      {
+      
+         return other;
+      
+      }
+   
+      final char[] keys = new char[this.keys.length + other.keys.length];
+      final Container[] containers = new Container[this.keys.length + other.keys.length];
+   
+      int count = 0;
+      int left = 0;
+      int right = 0;
+   
+      while (left < this.keys.length || right < other.keys.length)
+      {
+      
+         final int leftKey = left < this.keys.length ? this.keys[left] : Integer.MAX_VALUE;
+         final int rightKey = right < other.keys.length ? other.keys[right] : Integer.MAX_VALUE;
+      
+         if (leftKey < rightKey)
+         {
+         
+            keys[count] = (char) leftKey;
+            containers[count++] = this.containers[left++];
+         
+         }
+      
+         else if (rightKey < leftKey)
+         {
+         
+            keys[count] = (char) rightKey;
+            containers[count++] = other.containers[right++];
+         
+         }
+      
+         else
+         {
+         
+            keys[count] = (char) leftKey;
+            containers[count++] = union(this.containers[left++], other.containers[right++]);
+         
+         }
+      
+      }
+   
+      return new CompressedBitSet(Arrays.copyOf(keys, count), Arrays.copyOf(containers, count));
+   
+   }
+
+   public int cardinality()
+   {
+   
+      int cardinality = 0;
+   
+      for (final Container container : this.containers)
+      {
+      
+         cardinality += container.cardinality();
+      
+      }
+   
+      return cardinality;
+   
+   }
+
+   public boolean isEmpty()
+   {
+   
+      return this.keys.length == 0;
+   
+   }
+
+   public void forEach(final IntConsumer action)
+   {
+   
+      for (int index = 0; index < this.keys.length; index++)
+      {
+      
+         this.containers[index].forEach(this.keys[index] << 16, action);
+      
+      }
+   
+   }
+
+   public int[] toArray()
+   {
+   
+      final int[] output = new int[this.cardinality()];
+   
+      final int[] index = {0};
+   
+      this.forEach(value -> output[index[0]++] = value);
+   
+      return output;
+   
+   }
+
+   private static Container containerOf(final int[] sorted, final int start, final int end)
+   {
+   
+      final char[] values = new char[end - start];
+   
+      int count = 0;
+   
+      for (int index = start; index < end; index++)
+      {
+      
+         final char low = (char) sorted[index];
+      
+         if (count == 0 || values[count - 1] != low)
+         {
+         
+            values[count++] = low;
+         
+         }
+      
+      }
+   
+      return containerOf(Arrays.copyOf(values, count));
+   
+   }
+
+   private static Container containerOf(final char[] sortedDistinctValues)
+   {
+   
+      if (sortedDistinctValues.length <= ARRAY_LIMIT)
+      {
+      
+         return new ArrayContainer(sortedDistinctValues);
+      
+      }
+   
+      final long[] words = new long[BITMAP_WORDS];
+   
+      for (final char low : sortedDistinctValues)
+      {
+      
+         words[low >>> 6] |= 1L << low;
+      
+      }
+   
+      return new BitmapContainer(words, sortedDistinctValues.length);
+   
+   }
+
+   private static Container union(final Container left, final Container right)
+   {
+   
+      return
+         switch (left)
+         {
+         
+            case ArrayContainer(char[] leftValues) when right instanceof ArrayContainer(char[] rightValues) ->
+               containerOf(mergeSorted(leftValues, rightValues));
+         
+            default ->
+            {
+            
+               final long[] words = new long[BITMAP_WORDS];
+            
+               setAll(words, left);
+               setAll(words, right);
+            
+               int cardinality = 0;
+            
+               for (final long word : words)
+               {
+               
+                  cardinality += Long.bitCount(word);
+               
+               }
+            
+               yield new BitmapContainer(words, cardinality);
+            
+            }
+         
+         };
+   
+   }
+
+   private static void setAll(final long[] words, final Container container)
+   {
+   
+      switch (container)
+      {
+      
+         case ArrayContainer(char[] values) ->
+         {
+         
+            for (final char low : values)
+            {
+            
+               words[low >>> 6] |= 1L << low;
+            
+            }
+         
+         }
+      
+         case BitmapContainer(long[] bitmap, int cardinality) ->
+         {
+         
+            for (int index = 0; index < words.length; index++)
+            {
+            
+               words[index] |= bitmap[index];
+            
+            }
+         
+         }
+      
+      }
+   
+   }
+
+   private static char[] mergeSorted(final char[] left, final char[] right)
+   {
+   
+      final char[] output = new char[left.length + right.length];
+   
+      int count = 0;
+      int leftIndex = 0;
+      int rightIndex = 0;
+   
+      while (leftIndex < left.length || rightIndex < right.length)
+      {
+      
+         final char next;
+      
+         if (rightIndex == right.length || (leftIndex < left.length && left[leftIndex] < right[rightIndex]))
+         {
+         
+            next = left[leftIndex++];
+         
+         }
+      
+         else if (leftIndex == left.length || right[rightIndex] < left[leftIndex])
+         {
+         
+            next = right[rightIndex++];
+         
+         }
+      
+         else
+         {
+         
+            next = left[leftIndex++];
+            rightIndex++;
+         
+         }
+      
+         output[count++] = next;
+      
+      }
+   
+      return Arrays.copyOf(output, count);
+   
+   }
+
+}
@@ -0,0 +1,284 @@
+
+package io.github.davidalayachew;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+//Counters and histograms for one HeadlessRulesEngine, recorded as it works, and readable at any time -- over JMX once
+//registerMBean has been called, or pushed to a MetricsSink on a schedule. Recording never locks, so it is safe on every call.
+
+public final class EngineMetrics implements EngineMetricsMXBean
+{
+
+   public record Snapshot
+   (
+      Map<String, Long>    parseableCounts,
+      Map<Response, Long>  responseCounts,
+      Histogram.Summary    parseLatency,
+      Histogram.Summary    applyLatency,
+      Histogram.Summary    queryLatency,
+      Histogram.Summary    nodesVisited,
+      long                 cacheHits,
+      long                 cacheMisses,
+      Map<String, Long>    sizes
+   )
+   {}
+
+   //one thread for every engine's reports -- a daemon, so reporting never keeps the JVM alive
+   private static final ScheduledExecutorService REPORTER =
+      Executors.newSingleThreadScheduledExecutor
+      (
+         runnable ->
+         {
+         
+            final Thread thread = new Thread(runnable, "EngineMetrics reporter");
+         
+            thread.setDaemon(true);
+         
+            return thread;
+         
+         }
+      );
+
+   private final Map<String, LongAdder> parseableCounts = new ConcurrentHashMap<>();
+   private final LongAdder[] responseCounts = new LongAdder[Response.values().length];
+
+   private final Histogram parseLatency = new Histogram();
+   private final Histogram applyLatency = new Histogram();
+   private final Histogram queryLatency = new Histogram();
+   private final Histogram nodesVisited = new Histogram();
+
+   private final LongAdder cacheHits = new LongAdder();
+   private final LongAdder cacheMisses = new LongAdder();
+
+   private final Supplier<Map<String, Long>> sizes;
+
+   EngineMetrics(final Supplier<Map<String, Long>> sizes)
+   {
+   
+      this.sizes = Objects.requireNonNull(sizes);
+   
+      for (int index = 0; index < this.responseCounts.length; index++)
+      {
+      
+         this.responseCounts[index] = new LongAdder();
+      
+      }
+   
+   }
+
+   void recordParse(final long nanos)
+   {
+   
+      this.parseLatency.record(nanos);
+   
+   }
+
+   void recordApply(final Parseable parseable, final Response response, final long nanos)
+   {
+   
+      this.record(parseable, response);
+      this.applyLatency.record(nanos);
+   
+   }
+
+   void recordQuery(final Parseable parseable, final Response response, final long nanos)
+   {
+   
+      this.record(parseable, response);
+      this.queryLatency.record(nanos);
+   
+   }
+
+   //How many of the identifier's types a question had to look at before it had its answer
+   void recordNodesVisited(final int nodes)
+   {
+   
+      this.nodesVisited.record(nodes);
+   
+   }
+
+   void recordCacheHit()
+   {
+   
+      this.cacheHits.increment();
+   
+   }
+
+   void recordCacheMiss()
+   {
+   
+      this.cacheMisses.increment();
+   
+   }
+
+   public EngineMetrics.Snapshot snapshot()
+   {
+   
+      final Map<String, Long> parseableCounts = new LinkedHashMap<>();
+   
+      this.parseableCounts.forEach((kind, count) -> parseableCounts.put(kind, count.sum()));
+   
+      final Map<Response, Long> responseCounts = new EnumMap<>(Response.class);
+   
+      for (final Response response : Response.values())
+      {
+      
+         responseCounts.put(response, this.responseCounts[response.ordinal()].sum());
+      
+      }
+   
+      return
+         new EngineMetrics.Snapshot
+         (
+            Collections.unmodifiableMap(parseableCounts),
+            Collections.unmodifiableMap(responseCounts),
+            this.parseLatency.summary(),
+            this.applyLatency.summary(),
+            this.queryLatency.summary(),
+            this.nodesVisited.summary(),
+            this.cacheHits.sum(),
+            this.cacheMisses.sum(),
+            this.sizes.get()
+         );
+   
+   }
+
+   //Registers these metrics with the platform MBean server, under io.github.davidalayachew:type=HeadlessRulesEngine,name=...
+   public ObjectName registerMBean(final String name) throws JMException
+   {
+   
+      final ObjectName objectName = new ObjectName("io.github.davidalayachew:type=HeadlessRulesEngine,name=" + ObjectName.quote(name));
+   
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+   
+      return objectName;
+   
+   }
+
+   //Cancel the returned future to stop reporting
+   public ScheduledFuture<?> reportEvery(final Duration period, final MetricsSink sink)
+   {
+   
+      Objects.requireNonNull(sink);
+   
+      return REPORTER.scheduleAtFixedRate(() -> sink.report(this.snapshot()), period.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+   
+   }
+
+   @Override
+   public Map<String, Long> getParseableCounts()
+   {
+   
+      return this.snapshot().parseableCounts();
+   
+   }
+
+   @Override
+   public Map<String, Long> getResponseCounts()
+   {
+   
+      final Map<String, Long> output = new LinkedHashMap<>();
+   
+      this.snapshot().responseCounts().forEach((response, count) -> output.put(response.name(), count));
+   
+      return output;
+   
+   }
+
+   @Override
+   public Map<String, Long> getParseLatency()
+   {
+   
+      return asMap(this.parseLatency.summary());
+   
+   }
+
+   @Override
+   public Map<String, Long> getApplyLatency()
+   {
+   
+      return asMap(this.applyLatency.summary());
+   
+   }
+
+   @Override
+   public Map<String, Long> getQueryLatency()
+   {
+   
+      return asMap(this.queryLatency.summary());
+   
+   }
+
+   @Override
+   public Map<String, Long> getNodesVisited()
+   {
+   
+      return asMap(this.nodesVisited.summary());
+   
+   }
+
+   @Override
+   public long getCacheHits()
+   {
+   
+      return this.cacheHits.sum();
+   
+   }
+
+   @Override
+   public long getCacheMisses()
+   {
+   
+      return this.cacheMisses.sum();
+   
+   }
+
+   @Override
+   public Map<String, Long> getSizes()
+   {
+   
+      return this.sizes.get();
+   
+   }
+
+   private void record(final Parseable parseable, final Response response)
+   {
+   
+      this.parseableCounts.computeIfAbsent(parseable.getClass().getSimpleName(), unused -> new LongAdder()).increment();
+      this.responseCounts[response.ordinal()].increment();
+   
+   }
+
+   private static Map<String, Long> asMap(final Histogram.Summary summary)
+   {
+   
+      final Map<String, Long> output = new LinkedHashMap<>();
+   
+      output.put("count",  summary.count());
+      output.put("mean",   summary.mean());
+      output.put("p50",    summary.p50());
+      output.put("p90",    summary.p90());
+      output.put("p99",    summary.p99());
+      output.put("p999",   summary.p999());
+      output.put("max",    summary.max());
+   
+      return output;
+   
+   }
+
+}
@@ -0,0 +1,29 @@
+
+package io.github.davidalayachew;
+
+import java.util.Map;
+
+//What EngineMetrics shows over JMX. Histograms come as count, mean, p50, p90, p99, p999 and max -- latencies in nanoseconds.
+
+public interface EngineMetricsMXBean
+{
+
+   Map<String, Long> getParseableCounts();
+
+   Map<String, Long> getResponseCounts();
+
+   Map<String, Long> getParseLatency();
+
+   Map<String, Long> getApplyLatency();
+
+   Map<String, Long> getQueryLatency();
+
+   Map<String, Long> getNodesVisited();
+
+   long getCacheHits();
+
+   long getCacheMisses();
+
+   Map<String, Long> getSizes();
+
+}
@@ -0,0 +1,82 @@
+
+package io.github.davidalayachew;
+
+//A read-only view of a TypeHierarchy, where the ancestors of each type id are a CompressedBitSet.
+//Made by TypeHierarchy.freeze(), which only rebuilds the rows that changed since the last freeze.
+
+public final class FrozenTypeHierarchy
+{
+
+   public static final FrozenTypeHierarchy EMPTY = new FrozenTypeHierarchy(new CompressedBitSet[0]);
+
+   private final CompressedBitSet[] ancestors;
+
+   FrozenTypeHierarchy(final CompressedBitSet[] ancestors)
+   {
+   
+      this.ancestors = ancestors;
+   
+   }
+
+   public boolean isA(final int subType, final int superType)
+   {
+   
+      return subType == superType || this.ancestorsOf(subType).contains(superType);
+   
+   }
+
+   public boolean anyIsA(final int[] subTypes, final int superType)
+   {
+   
+      for (final int subType : subTypes)
+      {
+      
+         if (this.isA(subType, superType))
+         {
+         
+            return true;
+         
+         }
+      
+      }
+   
+      return false;
+   
+   }
+
+   public CompressedBitSet ancestorsOf(final int type)
+   {
+   
+      return
+         type >= 0 && type < this.ancestors.length && this.ancestors[type] != null
+            ?  this.ancestors[type]
+            :  CompressedBitSet.EMPTY
+            ;
+   
+   }
+
+   //Every type that something with the given direct types belongs to -- the direct types included
+   public CompressedBitSet typesOf(final int[] directTypes)
+   {
+   
+      CompressedBitSet output = CompressedBitSet.of(directTypes);
+   
+      for (final int directType : directTypes)
+      {
+      
+         output = output.or(this.ancestorsOf(directType));
+      
+      }
+   
+      return output;
+   
+   }
+
+   CompressedBitSet[] rows()
+   {
+   
+      return this.ancestors;
+   
+   }
+
+}
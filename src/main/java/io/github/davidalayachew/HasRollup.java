@@ -0,0 +1,242 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+
+//The HAS rules that apply to something, for each type of quantity it could have -- the one place that decides which
+//rule wins when more than one does. A rule from a more specific type beats any rule from the types it is a kind of,
+//so a rule is dropped as soon as one for the same quantity turns up from one of its descendants. Rules from unrelated
+//types are all kept, however they compare, until someone asks for the count -- then the largest of them wins.
+//Since nothing is decided until the end, the answer does not depend on the order the rules were offered in.
+
+public final class HasRollup
+{
+
+   //Whatever holds the hierarchy -- a TypeHierarchy, or a snapshot of one
+   @FunctionalInterface
+   public interface Hierarchy
+   {
+   
+      boolean isA(int subType, int superType);
+   
+   }
+
+   //no count at all -- HAS counts are never negative
+   public static final long NO_COUNT = -1;
+
+   //The rules still in the running for one type of quantity -- the types whose rules they are, and those rules' counts.
+   //Rules only ever compete with rules for the same quantity, so each type of quantity gets its own.
+   private static final class Candidates
+   {
+   
+      private int[] sources = new int[2];
+      private long[] counts = new long[2];
+   
+      private int size = 0;
+   
+   }
+
+   private final HasRollup.Hierarchy hierarchy;
+
+   private final IntObjectMap<HasRollup.Candidates> candidates = new IntObjectMap<>();  //quantity type -> candidates
+
+   public HasRollup(final HasRollup.Hierarchy hierarchy)
+   {
+   
+      this.hierarchy = hierarchy;
+   
+   }
+
+   //true if there was no candidate for the quantity type before
+   public boolean offer(final int quantityType, final int source, final long count)
+   {
+   
+      final HasRollup.Candidates existing = this.candidates.get(quantityType);
+   
+      FIRST_RULE:
+      if (existing == null)
+      {
+      
+         final HasRollup.Candidates candidates = new HasRollup.Candidates();
+      
+         candidates.sources[0] = source;
+         candidates.counts[0] = count;
+         candidates.size = 1;
+      
+         this.candidates.put(quantityType, candidates);
+      
+         return true;
+      
+      }
+   
+      for (int index = 0; index < existing.size; index++)
+      {
+      
+         SAME_RULE:
+         if (existing.sources[index] == source)
+         {
+         
+            existing.counts[index] = count;
+         
+            return false;
+         
+         }
+      
+         MORE_SPECIFIC_ALREADY:
+         if (this.beats(existing.sources[index], source))
+         {
+         
+            return false;
+         
+         }
+      
+      }
+   
+      //whatever the new rule is more specific than goes
+      int kept = 0;
+   
+      for (int index = 0; index < existing.size; index++)
+      {
+      
+         if (!this.beats(source, existing.sources[index]))
+         {
+         
+            move(existing, index, kept++);
+         
+         }
+      
+      }
+   
+      existing.size = kept;
+   
+      if (existing.size == existing.sources.length)
+      {
+      
+         existing.sources = Arrays.copyOf(existing.sources, existing.size * 2);
+         existing.counts = Arrays.copyOf(existing.counts, existing.size * 2);
+      
+      }
+   
+      existing.sources[existing.size] = source;
+      existing.counts[existing.size] = count;
+      existing.size++;
+   
+      return false;
+   
+   }
+
+   //Offers every candidate the other roll-up has for the quantity type
+   public void offerAll(final HasRollup other, final int quantityType)
+   {
+   
+      final HasRollup.Candidates candidates = other.candidates.get(quantityType);
+   
+      if (candidates == null)
+      {
+      
+         return;
+      
+      }
+   
+      for (int index = 0; index < candidates.size; index++)
+      {
+      
+         this.offer(quantityType, candidates.sources[index], candidates.counts[index]);
+      
+      }
+   
+   }
+
+   //Drops the candidates that a change to the hierarchy has made less specific than another one for the same quantity
+   public void prune()
+   {
+   
+      this.candidates.forEachValue(this::prune);
+   
+   }
+
+   //The largest count among the most specific rules for the quantity type, or NO_COUNT if no rule has it
+   public long count(final int quantityType)
+   {
+   
+      final HasRollup.Candidates candidates = this.candidates.get(quantityType);
+   
+      long count = NO_COUNT;
+   
+      for (int index = 0; candidates != null && index < candidates.size; index++)
+      {
+      
+         count = Math.max(count, candidates.counts[index]);
+      
+      }
+   
+      return count;
+   
+   }
+
+   private void prune(final HasRollup.Candidates candidates)
+   {
+   
+      final boolean[] beaten = new boolean[candidates.size];
+   
+      for (int index = 0; index < candidates.size; index++)
+      {
+      
+         beaten[index] = this.isBeaten(candidates, index);
+      
+      }
+   
+      int kept = 0;
+   
+      for (int index = 0; index < candidates.size; index++)
+      {
+      
+         if (!beaten[index])
+         {
+         
+            move(candidates, index, kept++);
+         
+         }
+      
+      }
+   
+      candidates.size = kept;
+   
+   }
+
+   private boolean isBeaten(final HasRollup.Candidates candidates, final int index)
+   {
+   
+      for (int other = 0; other < candidates.size; other++)
+      {
+      
+         if (other != index && this.beats(candidates.sources[other], candidates.sources[index]))
+         {
+         
+            return true;
+         
+         }
+      
+      }
+   
+      return false;
+   
+   }
+
+   //A cycle in the hierarchy makes both types kinds of each other, and then neither beats the other
+   private boolean beats(final int source, final int other)
+   {
+   
+      return this.hierarchy.isA(source, other) && !this.hierarchy.isA(other, source);
+   
+   }
+
+   private static void move(final HasRollup.Candidates candidates, final int from, final int to)
+   {
+   
+      candidates.sources[to] = candidates.sources[from];
+      candidates.counts[to] = candidates.counts[from];
+   
+   }
+
+}
@@ -0,0 +1,1732 @@
+
+package io.github.davidalayachew;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+//The rules engine itself, with no UI attached -- the Swing frame in RulesEngine is just one client of this.
+//Facts go in through submit, or through the typed process methods, and every answer is a Response.
+//Any number of threads may use one engine. Facts are applied one at a time under a write lock. IS questions are answered
+//without any lock at all, from an immutable view that every write publishes whole -- only taking the read lock while
+//the hierarchy they would need is still being frozen. Every other question takes the read lock.
+//An engine made by open keeps its facts in a directory, and only answers OK to a fact once it is in the journal there.
+//A fact can be seen by questions from other threads as soon as it is applied, a little before it is durable. So if the
+//journal ever fails, the engine stops -- it refuses every fact and question from then on, rather than answer from facts
+//that will not be there when the directory is opened again. Opening it again is how to recover.
+//Every submit is counted and timed in metrics(), which can be watched over JMX.
+
+public class HeadlessRulesEngine implements Closeable
+{
+
+   //What a WHAT, WHO or HOW MANY question gets back -- how it went, and everything that answers it, sorted
+   public record Answer<E>(Response response, List<E> elements) {}
+
+   //What submitDeferred gets back -- the Response, and the journal sequence to wait on before the fact is durable
+   record Deferred(Response response, long sequence) {}
+
+   //Everything an IS question needs besides the hierarchy, by name -- the direct types of every known identifier, and the
+   //id of every known type. Immutable, so a question can read it without any lock, and replaced whole under the write lock
+   //by every write that could change an answer. hierarchyVersion counts the changes to the hierarchy it goes with.
+   private record IsView(PersistentMap<String, PersistentSet<Integer>> identifiers, PersistentMap<String, Integer> types, long hierarchyVersion)
+   {
+   
+      private static final IsView EMPTY = new IsView(PersistentMap.empty(), PersistentMap.empty(), 0);
+   
+      private IsView withIdentifier(final String identifier)
+      {
+      
+         return
+            this.identifiers.containsKey(identifier)
+               ?  this
+               :  new IsView(this.identifiers.plus(identifier, PersistentSet.empty()), this.types, this.hierarchyVersion)
+               ;
+      
+      }
+   
+      private IsView withType(final String type, final int id)
+      {
+      
+         return
+            this.types.containsKey(type)
+               ?  this
+               :  new IsView(this.identifiers, this.types.plus(type, id), this.hierarchyVersion)
+               ;
+      
+      }
+   
+      private IsView withIsInstance(final String identifier, final int type)
+      {
+      
+         final PersistentSet<Integer> directTypes = this.identifiers.getOrDefault(identifier, PersistentSet.empty());
+      
+         return new IsView(this.identifiers.plus(identifier, directTypes.plus(type)), this.types, this.hierarchyVersion);
+      
+      }
+   
+      private IsView withHierarchyChanged()
+      {
+      
+         return new IsView(this.identifiers, this.types, this.hierarchyVersion + 1);
+      
+      }
+   
+   }
+
+   //A frozen hierarchy, and the IsView.hierarchyVersion it was frozen at
+   private record FrozenAt(FrozenTypeHierarchy hierarchy, long hierarchyVersion) {}
+
+   private static final String CHECKPOINT_FILE = "checkpoint.bin";
+   private static final String JOURNAL_FILE = "journal.bin";
+
+   //the journal as it was when a checkpoint started -- only there until that checkpoint is safely written
+   private static final String RETIRED_JOURNAL_FILE = "journal.retired.bin";
+
+   private static final int QUERY_CACHE_CAPACITY = 1 << 14;
+
+   //no count at all -- HAS counts are never negative
+   private static final long NO_COUNT = -1;
+
+   //past this, the journal is folded into a new checkpoint, so replaying it on startup stays quick
+   private static final long CHECKPOINT_AFTER_BYTES = 64L * 1024 * 1024;
+
+   //Freezing copies a row per changed type, far too much to do on every write during a bulk load, so it happens here in the
+   //background instead. One thread for every engine -- TypeHierarchy.freeze keeps track of what changed since the last
+   //freeze, so two freezes of the same hierarchy must never overlap.
+   private static final ExecutorService FREEZER =
+      Executors.newSingleThreadExecutor
+      (
+         runnable ->
+         {
+         
+            final Thread thread = new Thread(runnable, "HeadlessRulesEngine freezer");
+         
+            thread.setDaemon(true);
+         
+            return thread;
+         
+         }
+      );
+
+   private final SymbolTable identifiers  = new SymbolTable();
+   private final SymbolTable types        = new SymbolTable();
+
+   private final KnownSymbols knownIdentifiers  = new KnownSymbols();
+   private final KnownSymbols knownTypes        = new KnownSymbols();
+
+   //Everything below is stored by the ids handed out by the symbol tables above.
+   //isRules and hasRules are keyed by the type of an EVERY rule, since EVERY is the only Frequency.
+
+   private final IntAdjacency       isInstances    = new IntAdjacency();       //identifier -> types
+   private final IntAdjacency       isRules        = new IntAdjacency();       //type       -> types
+   private final QuantityAdjacency  hasInstances   = new QuantityAdjacency();  //identifier -> type, count
+   private final QuantityAdjacency  hasRules       = new QuantityAdjacency();  //type       -> type, count
+
+   //isInstances the other way around, so WHO questions start from the type instead of checking every identifier
+   private final IntAdjacency       typeInstances  = new IntAdjacency();       //type       -> identifiers
+
+   //Every HAS rule a type gets, its own and its ancestors', worked out the first time a HOW MANY question needs it.
+   //A type's roll-up only depends on the rules of the type and its ancestors, so changing either only drops the roll-ups
+   //of that type and its descendants. Filled in under the read lock by any number of questions, emptied under the write lock,
+   //and only touched while holding its own monitor -- a roll-up is built outside of it, and never changed once it is in.
+   private final IntObjectMap<HasRollup> hasRollups = new IntObjectMap<>();  //type -> roll-up
+
+   //how many distinct facts of each kind the maps above hold -- only changed under the write lock
+   private long isInstanceCount  = 0;
+   private long isRuleCount      = 0;
+   private long hasInstanceCount = 0;
+   private long hasRuleCount     = 0;
+
+   private final TypeHierarchy typeHierarchy = new TypeHierarchy();
+
+   //Bumped by every write that could change the answer to an IS question, which empties the cache in one go.
+   //Only written under the write lock.
+   private volatile long generation = 0;
+
+   private final QueryCache queryCache = new QueryCache(QUERY_CACHE_CAPACITY);
+
+   //the last sorted names handed out, so the next call only has to merge in the names interned since
+   private final AtomicReference<SortedNames> identifierNames = new AtomicReference<>(SortedNames.EMPTY);
+   private final AtomicReference<SortedNames> typeNames = new AtomicReference<>(SortedNames.EMPTY);
+
+   //only written under the write lock, then read by IS questions without any lock
+   private volatile IsView isView = IsView.EMPTY;
+
+   //Behind isView whenever the hierarchy has changed since the freezer last ran -- until it catches up, IS questions take
+   //the read lock and use the live hierarchy instead
+   private volatile FrozenAt frozenTypeHierarchy = new FrozenAt(FrozenTypeHierarchy.EMPTY, 0);
+   private final AtomicBoolean freezeScheduled = new AtomicBoolean();
+
+   private final StampedLock lock = new StampedLock();
+
+   //a Normalizer reuses its buffer, so each thread needs its own
+   private static final ThreadLocal<Normalizer> NORMALIZER = ThreadLocal.withInitial(Normalizer::new);
+
+   //both null for an engine that only lives in memory
+   private final Path directory;
+   private final Journal journal;
+
+   //held by whoever is writing a checkpoint, so there is only ever one at a time
+   private final ReentrantLock checkpointLock = new ReentrantLock();
+
+   //why the engine stopped, or null while it is still running
+   private volatile IOException failure = null;
+
+   private final EngineMetrics metrics = new EngineMetrics(this::sizes);
+
+   //null unless the engine was asked to forward chain -- then every fact the rules imply is worked out as it is submitted,
+   //and questions read the answers off the network instead of walking the hierarchy
+   private final ReteNetwork network;
+
+   public HeadlessRulesEngine()
+   {
+   
+      this(false);
+   
+   }
+
+   public HeadlessRulesEngine(final boolean forwardChaining)
+   {
+   
+      this.directory = null;
+      this.journal = null;
+      this.network = forwardChaining ? new ReteNetwork(this.typeHierarchy) : null;
+   
+   }
+
+   private HeadlessRulesEngine(final Path directory, final boolean forwardChaining) throws IOException
+   {
+   
+      this.directory = directory;
+      this.network = forwardChaining ? new ReteNetwork(this.typeHierarchy) : null;
+   
+      final Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+   
+      if (Files.exists(checkpoint))
+      {
+      
+         Journal.readCheckpoint(checkpoint, this::submit);
+      
+      }
+   
+      final Path retiredJournal = directory.resolve(RETIRED_JOURNAL_FILE);
+   
+      //Left by a checkpoint that never finished -- everything in it came after the checkpoint above, and before the journal.
+      //Opening it cuts off any torn record at its end, so the next checkpoint can carry on appending to it.
+      if (Files.exists(retiredJournal))
+      {
+      
+         Journal.open(retiredJournal, this::submit).close();
+      
+      }
+   
+      //the journal field is still null while replaying, so nothing replayed gets journaled again
+      this.journal = Journal.open(directory.resolve(JOURNAL_FILE), this::submit);
+   
+   }
+
+   //An engine holding everything accepted by the last engine opened on this directory
+   public static HeadlessRulesEngine open(final Path directory) throws IOException
+   {
+   
+      return open(directory, false);
+   
+   }
+
+   public static HeadlessRulesEngine open(final Path directory, final boolean forwardChaining) throws IOException
+   {
+   
+      Files.createDirectories(directory);
+   
+      return new HeadlessRulesEngine(directory, forwardChaining);
+   
+   }
+
+   public Response submit(final String text)
+   {
+   
+      final long start = System.nanoTime();
+   
+      final Optional<? extends Parseable> parseable = this.parse(text);
+   
+      this.metrics.recordParse(System.nanoTime() - start);
+   
+      return
+         parseable
+            .<Response>map(this::submit)
+            .orElse(Response.INVALID_FORMAT)
+            ;
+   
+   }
+
+   public Optional<? extends Parseable> parse(final CharSequence text)
+   {
+   
+      return ClassParser.parse(NORMALIZER.get().normalize(text));
+   
+   }
+
+   public Response submit(final Parseable parseable)
+   {
+   
+      Objects.requireNonNull(parseable);
+   
+      final long start = System.nanoTime();
+   
+      final Response response = this.process(parseable);
+   
+      final long nanos = System.nanoTime() - start;
+   
+      if
+      (
+         parseable instanceof IsIdentifierAType
+         || parseable instanceof WhatIsIdentifier
+         || parseable instanceof WhoIsAType
+         || parseable instanceof HowManyTypeDoesIdentifierHave
+      )
+      {
+      
+         this.metrics.recordQuery(parseable, response, nanos);
+      
+      }
+   
+      else
+      {
+      
+         this.metrics.recordApply(parseable, response, nanos);
+      
+      }
+   
+      return response;
+   
+   }
+
+   //submit, but a fact comes back as soon as it is applied, along with the journal sequence to hand to awaitDurable before
+   //it counts as durable. A caller applying many facts in a row waits once, for the largest sequence, instead of once per fact.
+   HeadlessRulesEngine.Deferred submitDeferred(final Parseable parseable)
+   {
+   
+      Objects.requireNonNull(parseable);
+   
+      final long start = System.nanoTime();
+   
+      final long sequence;
+   
+      switch (parseable)
+      {
+      
+         case IdentifierHasQuantityType ihqt     -> sequence = this.applyIdentifierHasQuantityType(ihqt);
+         case IdentifierIsAType iiat             -> sequence = this.applyIdentifierIsAType(iiat);
+         case FrequencyTypeHasQuantityType fthqt -> sequence = this.applyFrequencyTypeHasQuantityType(fthqt);
+         case FrequencyTypeIsType ftit           -> sequence = this.applyFrequencyTypeIsType(ftit);
+         default                                 ->
+         {
+         
+            return new Deferred(this.submit(parseable), this.lastAppended());
+         
+         }
+      
+      }
+   
+      this.metrics.recordApply(parseable, Response.OK, System.nanoTime() - start);
+   
+      return new Deferred(Response.OK, sequence);
+   
+   }
+
+   //submit, but as text someone can read -- and for a WHAT, WHO or HOW MANY question, the answer follows the Response
+   public String answer(final String text)
+   {
+   
+      return
+         this
+            .parse(text)
+            .map(this::answer)
+            .orElse(Response.INVALID_FORMAT.name())
+            ;
+   
+   }
+
+   public String answer(final Parseable parseable)
+   {
+   
+      final long start = System.nanoTime();
+   
+      final Answer<?> answer =
+         switch (parseable)
+         {
+         
+            case WhatIsIdentifier wii                 -> processWhatIsIdentifier(wii);
+            case WhoIsAType wiat                      -> processWhoIsAType(wiat);
+            case HowManyTypeDoesIdentifierHave hmtdih -> processHowManyTypeDoesIdentifierHave(hmtdih);
+            default                                   -> null;
+         
+         };
+   
+      if (answer == null)
+      {
+      
+         return this.submit(parseable).name();
+      
+      }
+   
+      this.metrics.recordQuery(parseable, answer.response(), System.nanoTime() - start);
+   
+      final StringBuilder output = new StringBuilder(answer.response().name());
+   
+      answer.elements().forEach(element -> output.append(' ').append(element));
+   
+      return output.toString();
+   
+   }
+
+   public EngineMetrics metrics()
+   {
+   
+      return this.metrics;
+   
+   }
+
+   private Response process(final Parseable parseable)
+   {
+   
+      return
+         switch (parseable)
+         {
+         
+            case Type t                               -> Response.NOT_YET_IMPLEMENTED;//processType(t);
+            case Quantity q                           -> Response.NOT_YET_IMPLEMENTED;
+            case QuantityType qt                      -> Response.NOT_YET_IMPLEMENTED;
+            case Identifier i                         -> Response.NOT_YET_IMPLEMENTED;
+            case IdentifierHasQuantityType ihqt       -> processIdentifierHasQuantityType(ihqt);
+            case IdentifierIsAType iiat               -> processIdentifierIsAType(iiat);
+            case FrequencyType ft                     -> Response.NOT_YET_IMPLEMENTED;
+            case FrequencyTypeRelationship ftr        -> Response.NOT_YET_IMPLEMENTED;
+            case FrequencyTypeHasQuantityType fthqt   -> processFrequencyTypeHasQuantityType(fthqt);
+            case FrequencyTypeIsType ftit             -> processFrequencyTypeIsType(ftit);
+            case IsIdentifierAType iiat               -> processIsIdentifierAType(iiat);
+            case WhatIsIdentifier wii                 -> processWhatIsIdentifier(wii).response();
+            case WhoIsAType wiat                      -> processWhoIsAType(wiat).response();
+            case HowManyTypeDoesIdentifierHave hmtdih -> processHowManyTypeDoesIdentifierHave(hmtdih).response();
+         
+         };
+   
+   }
+
+   public Response processIsIdentifierAType(final IsIdentifierAType isQuery)
+   {
+   
+      this.ensureUsable();
+   
+      //read before answering, so an answer raced by a write is stored under a generation that is already gone
+      final long generation = this.generation;
+   
+      final Response cached = this.queryCache.get(isQuery, generation);
+   
+      if (cached != null)
+      {
+      
+         this.metrics.recordCacheHit();
+      
+         return cached;
+      
+      }
+   
+      this.metrics.recordCacheMiss();
+   
+      final Response response = this.answerIsIdentifierAType(isQuery);
+   
+      this.queryCache.put(isQuery, generation, response);
+   
+      return response;
+   
+   }
+
+   //The same answer as processIsIdentifierAType, worked out from the facts every time, without looking in or adding to the query cache
+   public Response answerIsIdentifierAType(final IsIdentifierAType isQuery)
+   {
+   
+      this.ensureUsable();
+   
+      final int[] visited = {0};
+   
+      //the view first -- a frozen hierarchy at its version can only have been frozen from a hierarchy at least as old
+      final IsView view = this.isView;
+      final FrozenAt frozen = this.frozenTypeHierarchy;
+   
+      LOCK_FREE:
+      if (this.network == null && frozen.hierarchyVersion() == view.hierarchyVersion())
+      {
+      
+         final Response response = this.isIdentifierAType(isQuery, view, frozen.hierarchy()::isA, visited);
+      
+         this.metrics.recordNodesVisited(visited[0]);
+      
+         return response;
+      
+      }
+   
+      final long stamp = this.lock.readLock();
+   
+      try
+      {
+      
+         final Response response = this.isIdentifierAType(isQuery, this.isView, this.typeHierarchy::isA, visited);
+      
+         this.metrics.recordNodesVisited(visited[0]);
+      
+         return response;
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockRead(stamp);
+      
+      }
+   
+   }
+
+   //Reads nothing mutable unless the engine forward chains, which only the read lock path above allows.
+   //visited[0] ends up as the number of the identifier's direct types that were checked against the hierarchy.
+   private Response isIdentifierAType(final IsIdentifierAType isQuery, final IsView view, final HasRollup.Hierarchy hierarchy, final int[] visited)
+   {
+   
+      //Only look the names up -- a question should not intern anything
+      final PersistentSet<Integer> directTypes = view.identifiers().get(isQuery.identifier().name());
+      final Integer givenType = view.types().get(isQuery.type().name());
+   
+      UNKNOWN_IDENTIFIER:
+      if (directTypes == null)
+      {
+      
+         return Response.UNKNOWN_IDENTIFIER;
+      
+      }
+   
+      UNKNOWN_TYPE:
+      if (givenType == null)
+      {
+      
+         return Response.UNKNOWN_TYPE;
+      
+      }
+   
+      IDENTIFIER_HAS_NO_RELATIONSHIPS:
+      if (directTypes.isEmpty())
+      {
+      
+         return Response.IDENTIFIER_HAS_NO_RELATIONSHIPS;
+      
+      }
+   
+      FORWARD_CHAINED:
+      if (this.network != null)
+      {
+      
+         final int givenIdentifier = this.identifiers.idOf(isQuery.identifier().name());
+      
+         return this.network.isA(givenIdentifier, givenType) ? Response.CORRECT : Response.FALL_THROUGH;
+      
+      }
+   
+      CORRECT:
+      if (directTypes.contains(givenType))
+      {
+      
+         return Response.CORRECT;
+      
+      }
+   
+      INDIRECT_CORRECT:
+      if
+      (
+         directTypes.anyMatch
+         (
+            type ->
+            {
+            
+               visited[0]++;
+            
+               return hierarchy.isA(type, givenType);
+            
+            }
+         )
+      )
+      {
+      
+         return Response.CORRECT;
+      
+      }
+   
+      return Response.FALL_THROUGH;
+   
+   }
+
+   //Every type the identifier is, directly or through the hierarchy.
+   //These questions build a list as they go, so unlike IS questions they take the read lock rather than risk an optimistic read.
+   public HeadlessRulesEngine.Answer<Type> processWhatIsIdentifier(final WhatIsIdentifier whatQuery)
+   {
+   
+      this.ensureUsable();
+   
+      final long stamp = this.lock.readLock();
+   
+      try
+      {
+      
+         final int givenIdentifier = this.identifiers.idOf(whatQuery.identifier().name());
+      
+         UNKNOWN_IDENTIFIER:
+         if (!this.knownIdentifiers.isKnown(givenIdentifier))
+         {
+         
+            return new Answer<>(Response.UNKNOWN_IDENTIFIER, List.of());
+         
+         }
+      
+         IDENTIFIER_HAS_NO_RELATIONSHIPS:
+         if (this.isInstances.degree(givenIdentifier) == 0)
+         {
+         
+            return new Answer<>(Response.IDENTIFIER_HAS_NO_RELATIONSHIPS, List.of());
+         
+         }
+      
+         final IntSet found = new IntSet();
+      
+         if (this.network != null)
+         {
+         
+            this.network.forEachType(givenIdentifier, found::add);
+         
+         }
+      
+         else
+         {
+         
+            for (final int directType : this.isInstances.toArray(givenIdentifier))
+            {
+            
+               found.add(directType);
+            
+               for (final int ancestor : this.typeHierarchy.ancestorsOf(directType))
+               {
+               
+                  found.add(ancestor);
+               
+               }
+            
+            }
+         
+         }
+      
+         return new Answer<>(Response.OK, namesOf(found, this.types, Type::new));
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockRead(stamp);
+      
+      }
+   
+   }
+
+   //Every identifier that is the type, directly or through the hierarchy -- found by walking down from the type to its
+   //descendants and their instances, so the work done is in proportion to the answer, not to the number of identifiers
+   public HeadlessRulesEngine.Answer<Identifier> processWhoIsAType(final WhoIsAType whoQuery)
+   {
+   
+      this.ensureUsable();
+   
+      final long stamp = this.lock.readLock();
+   
+      try
+      {
+      
+         final int givenType = this.types.idOf(whoQuery.type().name());
+      
+         UNKNOWN_TYPE:
+         if (!this.knownTypes.isKnown(givenType))
+         {
+         
+            return new Answer<>(Response.UNKNOWN_TYPE, List.of());
+         
+         }
+      
+         final IntSet found = new IntSet();
+      
+         if (this.network != null)
+         {
+         
+            this.network.forEachMember(givenType, found::add);
+         
+         }
+      
+         else
+         {
+         
+            this.typeInstances.forEach(givenType, found::add);
+         
+            for (final int descendant : this.typeHierarchy.descendantsOf(givenType))
+            {
+            
+               this.typeInstances.forEach(descendant, found::add);
+            
+            }
+         
+         }
+      
+         return new Answer<>(found.isEmpty() ? Response.FALL_THROUGH : Response.OK, namesOf(found, this.identifiers, Identifier::new));
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockRead(stamp);
+      
+      }
+   
+   }
+
+   //What the identifier itself was said to have wins. Otherwise, the HAS rules of its types and their ancestors decide,
+   //the way HasRollup picks between them.
+   public HeadlessRulesEngine.Answer<QuantityType> processHowManyTypeDoesIdentifierHave(final HowManyTypeDoesIdentifierHave howManyQuery)
+   {
+   
+      this.ensureUsable();
+   
+      final long stamp = this.lock.readLock();
+   
+      try
+      {
+      
+         final int givenIdentifier = this.identifiers.idOf(howManyQuery.identifier().name());
+         final int givenType = this.types.idOf(howManyQuery.type().name());
+      
+         UNKNOWN_IDENTIFIER:
+         if (!this.knownIdentifiers.isKnown(givenIdentifier))
+         {
+         
+            return new Answer<>(Response.UNKNOWN_IDENTIFIER, List.of());
+         
+         }
+      
+         UNKNOWN_TYPE:
+         if (!this.knownTypes.isKnown(givenType))
+         {
+         
+            return new Answer<>(Response.UNKNOWN_TYPE, List.of());
+         
+         }
+      
+         long count = this.network != null ? this.network.count(givenIdentifier, givenType) : this.hasInstances.get(givenIdentifier, givenType, NO_COUNT);
+      
+         INHERITED:
+         if (count == NO_COUNT && this.network == null)
+         {
+         
+            final int[] directTypes = this.isInstances.toArray(givenIdentifier);
+         
+            ONE_TYPE:
+            if (directTypes.length == 1)
+            {
+            
+               count = this.hasRollup(directTypes[0]).count(givenType);
+            
+               break INHERITED;
+            
+            }
+         
+            //The roll-ups are merged rather than their counts compared, so that a rule from one direct type still beats
+            //a rule from another direct type that it is a kind of
+            final HasRollup merged = new HasRollup(this.typeHierarchy::isA);
+         
+            for (final int directType : directTypes)
+            {
+            
+               merged.offerAll(this.hasRollup(directType), givenType);
+            
+            }
+         
+            count = merged.count(givenType);
+         
+         }
+      
+         return
+            count == NO_COUNT
+               ?  new Answer<>(Response.FALL_THROUGH, List.of())
+               :  new Answer<>(Response.OK, List.of(new QuantityType(new Quantity(count), howManyQuery.type())))
+               ;
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockRead(stamp);
+      
+      }
+   
+   }
+
+   private HasRollup hasRollup(final int type)
+   {
+   
+      synchronized (this.hasRollups)
+      {
+      
+         final HasRollup rollup = this.hasRollups.get(type);
+      
+         if (rollup != null)
+         {
+         
+            return rollup;
+         
+         }
+      
+      }
+   
+      //two questions can both build it -- they build the same thing, and the first one in is kept
+      final HasRollup rollup = this.computeHasRollup(type);
+   
+      synchronized (this.hasRollups)
+      {
+      
+         return this.hasRollups.computeIfAbsent(type, absent -> rollup);
+      
+      }
+   
+   }
+
+   private HasRollup computeHasRollup(final int type)
+   {
+   
+      final HasRollup rollup = new HasRollup(this.typeHierarchy::isA);
+   
+      this.hasRules.forEach(type, (ruleType, count) -> rollup.offer(ruleType, type, count));
+   
+      for (final int ancestor : this.typeHierarchy.ancestorsOf(type))
+      {
+      
+         this.hasRules.forEach(ancestor, (ruleType, count) -> rollup.offer(ruleType, ancestor, count));
+      
+      }
+   
+      return rollup;
+   
+   }
+
+   //Called under the write lock, whenever the HAS rules of the type, or its place in the hierarchy, change
+   private void invalidateHasRollups(final int type)
+   {
+   
+      synchronized (this.hasRollups)
+      {
+      
+         if (this.hasRollups.isEmpty())
+         {
+         
+            return;
+         
+         }
+      
+         this.hasRollups.remove(type);
+      
+         for (final int descendant : this.typeHierarchy.descendantsOf(type))
+         {
+         
+            this.hasRollups.remove(descendant);
+         
+         }
+      
+      }
+   
+   }
+
+   private static <E> List<E> namesOf(final IntSet ids, final SymbolTable symbols, final Function<String, E> elementOf)
+   {
+   
+      final String[] names = new String[ids.size()];
+   
+      final int[] index = {0};
+   
+      ids.forEach(id -> names[index[0]++] = symbols.nameOf(id));
+   
+      Arrays.sort(names);
+   
+      final List<E> output = new ArrayList<>(names.length);
+   
+      for (final String name : names)
+      {
+      
+         output.add(elementOf.apply(name));
+      
+      }
+   
+      return output;
+   
+   }
+
+   //The same answers as calling processIsIdentifierAType on each question, in the same order -- but each identifier's
+   //types are expanded through the hierarchy once, and every question about it is then a single lookup in that set
+   public List<Response> processIsIdentifierATypes(final Collection<IsIdentifierAType> isQueries)
+   {
+   
+      this.ensureUsable();
+   
+      final IsIdentifierAType[] queries = isQueries.toArray(IsIdentifierAType[]::new);
+   
+      final long start = System.nanoTime();
+   
+      final Response[] responses = this.answerAll(queries);
+   
+      final long nanosPerQuery = (System.nanoTime() - start) / Math.max(1, queries.length);
+   
+      for (int index = 0; index < queries.length; index++)
+      {
+      
+         this.metrics.recordQuery(queries[index], responses[index], nanosPerQuery);
+      
+      }
+   
+      return Arrays.asList(responses);
+   
+   }
+
+   private Response[] answerAll(final IsIdentifierAType[] queries)
+   {
+   
+      //the same order as answerIsIdentifierAType
+      final IsView view = this.isView;
+      final FrozenAt frozen = this.frozenTypeHierarchy;
+   
+      LOCK_FREE:
+      if (frozen.hierarchyVersion() == view.hierarchyVersion())
+      {
+      
+         return this.areIdentifiersATypes(queries, view, frozen.hierarchy());
+      
+      }
+   
+      final long stamp = this.lock.readLock();
+   
+      try
+      {
+      
+         return this.areIdentifiersATypes(queries, this.isView, null);
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockRead(stamp);
+      
+      }
+   
+   }
+
+   //Without a frozen hierarchy, only safe under the read lock
+   private Response[] areIdentifiersATypes(final IsIdentifierAType[] queries, final IsView view, final FrozenTypeHierarchy frozen)
+   {
+   
+      //by identifier, so each one is only expanded once
+      final Map<String, CompressedBitSet> typesByIdentifier = new HashMap<>();
+   
+      final Response[] responses = new Response[queries.length];
+   
+      for (int index = 0; index < queries.length; index++)
+      {
+      
+         final String givenIdentifier = queries[index].identifier().name();
+      
+         final PersistentSet<Integer> directTypes = view.identifiers().get(givenIdentifier);
+         final Integer givenType = view.types().get(queries[index].type().name());
+      
+         if (directTypes == null)
+         {
+         
+            responses[index] = Response.UNKNOWN_IDENTIFIER;
+         
+         }
+      
+         else if (givenType == null)
+         {
+         
+            responses[index] = Response.UNKNOWN_TYPE;
+         
+         }
+      
+         else if (directTypes.isEmpty())
+         {
+         
+            responses[index] = Response.IDENTIFIER_HAS_NO_RELATIONSHIPS;
+         
+         }
+      
+         else
+         {
+         
+            final CompressedBitSet typesOfIdentifier =
+               typesByIdentifier.computeIfAbsent(givenIdentifier, identifier -> this.typesOf(directTypes, frozen));
+         
+            responses[index] = typesOfIdentifier.contains(givenType) ? Response.CORRECT : Response.FALL_THROUGH;
+         
+         }
+      
+      }
+   
+      return responses;
+   
+   }
+
+   //Every type the identifier belongs to, directly or through the hierarchy
+   private CompressedBitSet typesOf(final PersistentSet<Integer> directTypeSet, final FrozenTypeHierarchy frozen)
+   {
+   
+      final int[] directTypes = directTypeSet.toList().stream().mapToInt(Integer::intValue).toArray();
+   
+      this.metrics.recordNodesVisited(directTypes.length);
+   
+      if (frozen != null)
+      {
+      
+         return frozen.typesOf(directTypes);
+      
+      }
+   
+      CompressedBitSet output = CompressedBitSet.of(directTypes);
+   
+      for (final int directType : directTypes)
+      {
+      
+         output = output.or(CompressedBitSet.of(this.typeHierarchy.ancestorsOf(directType)));
+      
+      }
+   
+      return output;
+   
+   }
+
+   //Called under the write lock whenever the hierarchy changes. A freeze already waiting to run picks this change up too.
+   private void scheduleFreeze()
+   {
+   
+      if (this.freezeScheduled.compareAndSet(false, true))
+      {
+      
+         FREEZER.execute(this::freezeTypeHierarchy);
+      
+      }
+   
+   }
+
+   //Runs on the freezer thread, under the read lock -- writers must not change the hierarchy mid freeze, but readers can go on
+   private void freezeTypeHierarchy()
+   {
+   
+      //cleared first, so a change made from here on schedules another freeze rather than being missed
+      this.freezeScheduled.set(false);
+   
+      final long stamp = this.lock.readLock();
+   
+      try
+      {
+      
+         this.frozenTypeHierarchy = new FrozenAt(this.typeHierarchy.freeze(), this.isView.hierarchyVersion());
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockRead(stamp);
+      
+      }
+   
+   }
+
+   public Response processFrequencyTypeHasQuantityType(final FrequencyTypeHasQuantityType hasRule)
+   {
+   
+      this.awaitDurable(this.applyFrequencyTypeHasQuantityType(hasRule));
+   
+      return Response.OK;
+   
+   }
+
+   public Response processFrequencyTypeIsType(final FrequencyTypeIsType isRule)
+   {
+   
+      this.awaitDurable(this.applyFrequencyTypeIsType(isRule));
+   
+      return Response.OK;
+   
+   }
+
+   public Response processIdentifierHasQuantityType(final IdentifierHasQuantityType hasInstance)
+   {
+   
+      this.awaitDurable(this.applyIdentifierHasQuantityType(hasInstance));
+   
+      return Response.OK;
+   
+   }
+
+   public Response processIdentifierIsAType(final IdentifierIsAType isInstance)
+   {
+   
+      this.awaitDurable(this.applyIdentifierIsAType(isInstance));
+   
+      return Response.OK;
+   
+   }
+
+   //The apply methods change the engine under the write lock, and give back the journal sequence the caller has to wait on
+   //before the fact is durable. A fact the engine already knew is not journaled again -- it only has to wait for whatever
+   //was appended before it, which includes the first time it was submitted.
+   private long applyFrequencyTypeHasQuantityType(final FrequencyTypeHasQuantityType hasRule)
+   {
+   
+      this.ensureUsable();
+   
+      final long stamp = this.lock.writeLock();
+   
+      try
+      {
+      
+         final int subType = this.types.intern(hasRule.frequencyType().type().name());
+         final int type = this.types.intern(hasRule.quantityType().type().name());
+      
+         final boolean changed =
+            switch (hasRule.frequencyType().frequency())
+            {
+            
+               case EVERY -> this.putHasRule(subType, type, hasRule.quantityType().quantity().count());
+            
+            };
+      
+         if (!changed)
+         {
+         
+            return this.lastAppended();
+         
+         }
+      
+         this.invalidateHasRollups(subType);
+      
+         return this.appendToJournal(hasRule);
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockWrite(stamp);
+      
+      }
+   
+   }
+
+   private long applyFrequencyTypeIsType(final FrequencyTypeIsType isRule)
+   {
+   
+      this.ensureUsable();
+   
+      final long stamp = this.lock.writeLock();
+   
+      try
+      {
+      
+         final int subType = this.types.intern(isRule.frequencyType().type().name());
+         final int superType = this.types.intern(isRule.type().name());
+      
+         switch (isRule.frequencyType().frequency())
+         {
+         
+            case EVERY ->
+            {
+            
+               if (!this.isRules.add(subType, superType))
+               {
+               
+                  return this.lastAppended();
+               
+               }
+            
+               this.isRuleCount++;
+               this.generation++;
+               this.knownTypes.reference(subType);
+               this.knownTypes.reference(superType);
+            
+               this.isView =
+                  this.isView
+                     .withType(isRule.frequencyType().type().name(), subType)
+                     .withType(isRule.type().name(), superType)
+                     ;
+            
+               if (this.typeHierarchy.add(subType, superType))
+               {
+               
+                  this.isView = this.isView.withHierarchyChanged();
+                  this.invalidateHasRollups(subType);
+                  this.scheduleFreeze();
+               
+               }
+            
+               if (this.network != null)
+               {
+               
+                  this.network.addIsRule(subType, superType);
+               
+               }
+            
+            }
+         
+         }
+      
+         return this.appendToJournal(isRule);
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockWrite(stamp);
+      
+      }
+   
+   }
+
+   private long applyIdentifierHasQuantityType(final IdentifierHasQuantityType hasInstance)
+   {
+   
+      this.ensureUsable();
+   
+      final long stamp = this.lock.writeLock();
+   
+      try
+      {
+      
+         final int identifier = this.identifiers.intern(hasInstance.identifier().name());
+         final int type = this.types.intern(hasInstance.quantityType().type().name());
+      
+         return
+            this.putHasInstance(identifier, type, hasInstance.quantityType().quantity().count())
+               ?  this.appendToJournal(hasInstance)
+               :  this.lastAppended()
+               ;
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockWrite(stamp);
+      
+      }
+   
+   }
+
+   private long applyIdentifierIsAType(final IdentifierIsAType isInstance)
+   {
+   
+      this.ensureUsable();
+   
+      final long stamp = this.lock.writeLock();
+   
+      try
+      {
+      
+         final int identifier = this.identifiers.intern(isInstance.identifier().name());
+         final int type = this.types.intern(isInstance.type().name());
+      
+         if (!this.isInstances.add(identifier, type))
+         {
+         
+            return this.lastAppended();
+         
+         }
+      
+         this.typeInstances.add(type, identifier);
+         this.isInstanceCount++;
+         this.generation++;
+         this.knownIdentifiers.reference(identifier);
+         this.knownTypes.reference(type);
+      
+         this.isView =
+            this.isView
+               .withIsInstance(isInstance.identifier().name(), type)
+               .withType(isInstance.type().name(), type)
+               ;
+      
+         if (this.network != null)
+         {
+         
+            this.network.addIsFact(identifier, type);
+         
+         }
+      
+         return this.appendToJournal(isInstance);
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockWrite(stamp);
+      
+      }
+   
+   }
+
+   //true if the identifier did not have that count of the type before
+   private boolean putHasInstance(final int identifier, final int type, final long count)
+   {
+   
+      if (this.hasInstances.get(identifier, type, NO_COUNT) == count)
+      {
+      
+         return false;
+      
+      }
+   
+      if (this.hasInstances.put(identifier, type, count))
+      {
+      
+         this.hasInstanceCount++;
+         this.knownIdentifiers.reference(identifier);
+         this.knownTypes.reference(type);
+      
+         this.isView =
+            this.isView
+               .withIdentifier(this.identifiers.nameOf(identifier))
+               .withType(this.types.nameOf(type), type)
+               ;
+      
+      }
+   
+      this.generation++;
+   
+      if (this.network != null)
+      {
+      
+         this.network.putHasFact(identifier, type, count);
+      
+      }
+   
+      return true;
+   
+   }
+
+   //true if the type did not have that count of the other type before
+   private boolean putHasRule(final int subType, final int type, final long count)
+   {
+   
+      if (this.hasRules.get(subType, type, NO_COUNT) == count)
+      {
+      
+         return false;
+      
+      }
+   
+      if (this.hasRules.put(subType, type, count))
+      {
+      
+         this.hasRuleCount++;
+         this.knownTypes.reference(subType);
+         this.knownTypes.reference(type);
+      
+         this.isView =
+            this.isView
+               .withType(this.types.nameOf(subType), subType)
+               .withType(this.types.nameOf(type), type)
+               ;
+      
+      }
+   
+      this.generation++;
+   
+      if (this.network != null)
+      {
+      
+         this.network.putHasRule(subType, type, count);
+      
+      }
+   
+      return true;
+   
+   }
+
+   //Writes everything the engine knows to a new checkpoint, and empties the journal -- waiting for any checkpoint already
+   //being written to finish first
+   public void checkpoint() throws IOException
+   {
+   
+      if (this.journal == null)
+      {
+      
+         throw new IllegalStateException("Only an engine made by open has somewhere to checkpoint to");
+      
+      }
+   
+      this.checkpointLock.lock();
+   
+      try
+      {
+      
+         this.writeCheckpoint();
+      
+      }
+   
+      finally
+      {
+      
+         this.checkpointLock.unlock();
+      
+      }
+   
+   }
+
+   //Called holding checkpointLock. Writers are only shut out while the journal is set aside -- the checkpoint itself is
+   //streamed out under the read lock, so questions go on, and it holds exactly the facts that were in the journal.
+   private void writeCheckpoint() throws IOException
+   {
+   
+      this.ensureUsable();
+   
+      final Path retiredJournal = this.directory.resolve(RETIRED_JOURNAL_FILE);
+   
+      long stamp = this.lock.writeLock();
+   
+      try
+      {
+      
+         try
+         {
+         
+            this.journal.rotate(retiredJournal);
+         
+         }
+      
+         catch (final IOException exception)
+         {
+         
+            this.failure = exception;
+         
+            throw exception;
+         
+         }
+      
+         stamp = this.lock.tryConvertToReadLock(stamp);
+      
+         Journal.writeCheckpoint(this.directory.resolve(CHECKPOINT_FILE), this::forEachFact);
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlock(stamp);
+      
+      }
+   
+      //only now is everything that was in it safely in the checkpoint
+      Files.deleteIfExists(retiredJournal);
+   
+   }
+
+   //Writes everything the engine knows to a file that MappedSnapshot.open can answer questions from
+   public void writeSnapshot(final Path file) throws IOException
+   {
+   
+      this.ensureUsable();
+   
+      final long stamp = this.lock.readLock();
+   
+      try (final MappedSnapshot.Writer writer = MappedSnapshot.writer(file))
+      {
+      
+         writer.symbols(this.identifiers, this.knownIdentifiers);
+         writer.symbols(this.types, this.knownTypes);
+         writer.adjacency(this.identifiers.size(), this.isInstances::toArray);
+         writer.adjacency(this.types.size(), this.isRules::toArray);
+         writer.adjacency(this.types.size(), this.typeHierarchy::ancestorsOf);
+         writer.quantities(this.identifiers.size(), this.hasInstances);
+         writer.quantities(this.types.size(), this.hasRules);
+         writer.commit();
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockRead(stamp);
+      
+      }
+   
+   }
+
+   @Override
+   public void close() throws IOException
+   {
+   
+      if (this.journal != null)
+      {
+      
+         this.journal.close();
+      
+      }
+   
+   }
+
+   //Every identifier a fact has mentioned, sorted
+   public SortedNames identifierNames()
+   {
+   
+      return this.sortedNames(this.identifierNames, this.identifiers);
+   
+   }
+
+   //Every type a fact has mentioned, sorted
+   public SortedNames typeNames()
+   {
+   
+      return this.sortedNames(this.typeNames, this.types);
+   
+   }
+
+   //Names are never forgotten, and questions never intern, so the ids past the ones already sorted are exactly the new names
+   private SortedNames sortedNames(final AtomicReference<SortedNames> published, final SymbolTable symbols)
+   {
+   
+      final SortedNames previous = published.get();
+      final SortedNames current;
+   
+      final long stamp = this.lock.readLock();
+   
+      try
+      {
+      
+         final String[] newNames = new String[Math.max(0, symbols.size() - previous.size())];
+      
+         for (int index = 0; index < newNames.length; index++)
+         {
+         
+            newNames[index] = symbols.nameOf(previous.size() + index);
+         
+         }
+      
+         current = previous.plus(newNames);
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockRead(stamp);
+      
+      }
+   
+      //two callers can merge at once -- the one holding more names is the newer, so a slower merge never replaces it
+      return published.accumulateAndGet(current, (mine, theirs) -> mine.size() >= theirs.size() ? mine : theirs);
+   
+   }
+
+   private Map<String, Long> sizes()
+   {
+   
+      final long stamp = this.lock.readLock();
+   
+      try
+      {
+      
+         final Map<String, Long> sizes = new LinkedHashMap<>();
+      
+         sizes.put("identifiers",      (long) this.identifiers.size());
+         sizes.put("types",            (long) this.types.size());
+         sizes.put("knownIdentifiers", (long) this.knownIdentifiers.size());
+         sizes.put("knownTypes",       (long) this.knownTypes.size());
+         sizes.put("isInstances",      this.isInstanceCount);
+         sizes.put("isRules",          this.isRuleCount);
+         sizes.put("hasInstances",     this.hasInstanceCount);
+         sizes.put("hasRules",         this.hasRuleCount);
+      
+         if (this.network != null)
+         {
+         
+            sizes.put("derivedFacts",     this.network.derivedCount());
+         
+         }
+      
+         return Collections.unmodifiableMap(sizes);
+      
+      }
+   
+      finally
+      {
+      
+         this.lock.unlockRead(stamp);
+      
+      }
+   
+   }
+
+   //0 when there is no journal -- called with the write lock held, so facts go into the journal in the order they were applied
+   private long appendToJournal(final Parseable fact)
+   {
+   
+      return this.journal == null ? 0 : this.journal.append(fact);
+   
+   }
+
+   private long lastAppended()
+   {
+   
+      return this.journal == null ? 0 : this.journal.lastSequence();
+   
+   }
+
+   //Called after the write lock is released, so that other writers can pile in behind us and share our force
+   void awaitDurable(final long sequence)
+   {
+   
+      if (this.journal == null)
+      {
+      
+         return;
+      
+      }
+   
+      try
+      {
+      
+         this.journal.awaitDurable(sequence);
+      
+      }
+   
+      catch (final IOException exception)
+      {
+      
+         this.failure = exception;
+      
+         throw new UncheckedIOException(exception);
+      
+      }
+   
+      //Only the first writer past the limit checkpoints, and the rest carry on -- the journal just keeps growing a little
+      //longer. The size is checked again once we hold the lock, in case a checkpoint finished in the meantime.
+      CHECKPOINT:
+      if (this.journal.size() > CHECKPOINT_AFTER_BYTES && this.checkpointLock.tryLock())
+      {
+      
+         try
+         {
+         
+            if (this.journal.size() > CHECKPOINT_AFTER_BYTES)
+            {
+            
+               this.writeCheckpoint();
+            
+            }
+         
+         }
+      
+         catch (final IOException exception)
+         {
+         
+            //the fact is durable either way -- it is in the journal, or in the retired journal the checkpoint left behind
+            throw new UncheckedIOException("The fact is durable, but the checkpoint after it could not be written", exception);
+         
+         }
+      
+         finally
+         {
+         
+            this.checkpointLock.unlock();
+         
+         }
+      
+      }
+   
+   }
+
+   private void ensureUsable()
+   {
+   
+      final IOException failure = this.failure;
+   
+      if (failure != null)
+      {
+      
+         throw new IllegalStateException("The journal could not be written, so this engine has stopped -- open its directory again", failure);
+      
+      }
+   
+   }
+
+   private void forEachFact(final Consumer<Parseable> action)
+   {
+   
+      for (int identifier = 0; identifier < this.identifiers.size(); identifier++)
+      {
+      
+         final Identifier name = new Identifier(this.identifiers.nameOf(identifier));
+      
+         this.isInstances.forEach(identifier, type -> action.accept(new IdentifierIsAType(name, this.typeOf(type))));
+         this.hasInstances.forEach(identifier, (type, count) -> action.accept(new IdentifierHasQuantityType(name, this.quantityTypeOf(count, type))));
+      
+      }
+   
+      for (int type = 0; type < this.types.size(); type++)
+      {
+      
+         final FrequencyType every = new FrequencyType(Frequency.EVERY, this.typeOf(type));
+      
+         this.isRules.forEach(type, superType -> action.accept(new FrequencyTypeIsType(every, this.typeOf(superType))));
+         this.hasRules.forEach(type, (ruleType, count) -> action.accept(new FrequencyTypeHasQuantityType(every, this.quantityTypeOf(count, ruleType))));
+      
+      }
+   
+   }
+
+   private Type typeOf(final int type)
+   {
+   
+      return new Type(this.types.nameOf(type));
+   
+   }
+
+   private QuantityType quantityTypeOf(final long count, final int type)
+   {
+   
+      return new QuantityType(new Quantity(count), this.typeOf(type));
+   
+   }
+
+}
@@ -0,0 +1,135 @@
+
+package io.github.davidalayachew;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+//A histogram of non-negative longs that any number of threads can record into at once, without locking.
+//Values go into buckets a quarter of a power of 2 wide, so a percentile it reports is never more than 25% above
+//the real one -- and it is always the same 256 counters, no matter how many values are recorded.
+
+public final class Histogram
+{
+
+   public record Summary(long count, long mean, long p50, long p90, long p99, long p999, long max) {}
+
+   private static final int SUB_BUCKET_BITS = 2;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+   private final AtomicLongArray counts = new AtomicLongArray(Long.SIZE * SUB_BUCKETS);
+   private final LongAdder count = new LongAdder();
+   private final LongAdder sum = new LongAdder();
+   private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+   public void record(final long value)
+   {
+   
+      final long clamped = Math.max(0, value);
+   
+      this.counts.incrementAndGet(bucketOf(clamped));
+      this.count.increment();
+      this.sum.add(clamped);
+      this.max.accumulate(clamped);
+   
+   }
+
+   public long count()
+   {
+   
+      return this.count.sum();
+   
+   }
+
+   //The smallest bucket bound that at least the given fraction of the recorded values are at or below
+   public long percentile(final double fraction)
+   {
+   
+      long total = 0;
+   
+      for (int bucket = 0; bucket < this.counts.length(); bucket++)
+      {
+      
+         total += this.counts.get(bucket);
+      
+      }
+   
+      final long rank = Math.max(1, (long) Math.ceil(fraction * total));
+   
+      long seen = 0;
+   
+      for (int bucket = 0; bucket < this.counts.length(); bucket++)
+      {
+      
+         seen += this.counts.get(bucket);
+      
+         if (seen >= rank)
+         {
+         
+            return Math.min(highestValueIn(bucket), this.max.get());
+         
+         }
+      
+      }
+   
+      return 0;
+   
+   }
+
+   public Histogram.Summary summary()
+   {
+   
+      final long count = this.count.sum();
+   
+      return
+         new Histogram.Summary
+         (
+            count,
+            count == 0 ? 0 : this.sum.sum() / count,
+            this.percentile(0.5),
+            this.percentile(0.9),
+            this.percentile(0.99),
+            this.percentile(0.999),
+            this.max.get()
+         );
+   
+   }
+
+   //Values below SUB_BUCKETS get a bucket each -- after that, every power of 2 is split into SUB_BUCKETS buckets
+   static int bucketOf(final long value)
+   {
+   
+      if (value < SUB_BUCKETS)
+      {
+      
+         return (int) value;
+      
+      }
+   
+      final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+      final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+   
+      return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+   
+   }
+
+   static long highestValueIn(final int bucket)
+   {
+   
+      if (bucket < SUB_BUCKETS)
+      {
+      
+         return bucket;
+      
+      }
+   
+      final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+      final long subBucket = bucket % SUB_BUCKETS;
+   
+      final long next = (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+   
+      return next <= 0 ? Long.MAX_VALUE : next - 1;
+   
+   }
+
+}
@@ -0,0 +1,10 @@
+package io.github.davidalayachew;
+
+public record HowManyTypeDoesIdentifierHave(Type type, Identifier identifier) implements Parseable, ToString
+{
+
+   public String toString() {
+      return cleanString();
+   }
+
+}
@@ -0,0 +1,93 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+//Directed edges between dense ids, one IntSet per source id.
+//A source only gets a row once an edge has been added from it.
+
+public class IntAdjacency
+{
+
+   private static final int[] NO_TARGETS = new int[0];
+
+   private IntSet[] rows = new IntSet[16];
+
+   public boolean add(final int from, final int to)
+   {
+   
+      if (from >= this.rows.length)
+      {
+      
+         this.rows = Arrays.copyOf(this.rows, Math.max(from + 1, this.rows.length * 2));
+      
+      }
+   
+      if (this.rows[from] == null)
+      {
+      
+         this.rows[from] = new IntSet();
+      
+      }
+   
+      return this.rows[from].add(to);
+   
+   }
+
+   public boolean containsKey(final int from)
+   {
+   
+      return this.row(from) != null;
+   
+   }
+
+   public boolean contains(final int from, final int to)
+   {
+   
+      return this.row(from) instanceof IntSet row && row.contains(to);
+   
+   }
+
+   public int degree(final int from)
+   {
+   
+      return this.row(from) instanceof IntSet row ? row.size() : 0;
+   
+   }
+
+   public void forEach(final int from, final IntConsumer action)
+   {
+   
+      if (this.row(from) instanceof IntSet row)
+      {
+      
+         row.forEach(action);
+      
+      }
+   
+   }
+
+   public boolean anyMatch(final int from, final IntPredicate predicate)
+   {
+   
+      return this.row(from) instanceof IntSet row && row.anyMatch(predicate);
+   
+   }
+
+   public int[] toArray(final int from)
+   {
+   
+      return this.row(from) instanceof IntSet row ? row.toArray() : NO_TARGETS;
+   
+   }
+
+   private IntSet row(final int from)
+   {
+   
+      return from >= 0 && from < this.rows.length ? this.rows[from] : null;
+   
+   }
+
+}
@@ -0,0 +1,194 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+
+//A hash map from non-negative int keys to long values, without any boxing.
+
+public class IntLongMap
+{
+
+   @FunctionalInterface
+   public interface EntryConsumer
+   {
+   
+      void accept(int key, long value);
+   
+   }
+
+   private static final int EMPTY = -1;
+   private static final int NO_SLOT = -1;
+
+   private int[] keys;
+   private long[] values;
+
+   private int size = 0;
+
+   public IntLongMap()
+   {
+   
+      this.keys = emptyKeys(4);
+      this.values = new long[4];
+   
+   }
+
+   //true if the key was not in the map before
+   public boolean put(final int key, final long value)
+   {
+   
+      if (key < 0)
+      {
+      
+         throw new IllegalArgumentException("Only non-negative keys are allowed -- " + key);
+      
+      }
+   
+      final int slot = slotOf(this.keys, key);
+   
+      this.values[slot] = value;
+   
+      if (this.keys[slot] == key)
+      {
+      
+         return false;
+      
+      }
+   
+      this.keys[slot] = key;
+      this.size++;
+   
+      if (this.size * 2 > this.keys.length)
+      {
+      
+         this.rehash();
+      
+      }
+   
+      return true;
+   
+   }
+
+   public long get(final int key, final long defaultValue)
+   {
+   
+      if (key < 0)
+      {
+      
+         return defaultValue;
+      
+      }
+   
+      final int[] keys = this.keys;
+      final long[] values = this.values;
+      final int slot = slotOf(keys, key);
+   
+      return slot != NO_SLOT && keys[slot] == key ? values[slot] : defaultValue;
+   
+   }
+
+   public boolean containsKey(final int key)
+   {
+   
+      if (key < 0)
+      {
+      
+         return false;
+      
+      }
+   
+      final int[] keys = this.keys;
+      final int slot = slotOf(keys, key);
+   
+      return slot != NO_SLOT && keys[slot] == key;
+   
+   }
+
+   public int size()
+   {
+   
+      return this.size;
+   
+   }
+
+   public void forEach(final IntLongMap.EntryConsumer action)
+   {
+   
+      for (int slot = 0; slot < this.keys.length; slot++)
+      {
+      
+         if (this.keys[slot] != EMPTY)
+         {
+         
+            action.accept(this.keys[slot], this.values[slot]);
+         
+         }
+      
+      }
+   
+   }
+
+   //Probes give up after going round the whole table once, for the same reason as in IntSet
+   private static int slotOf(final int[] keys, final int key)
+   {
+   
+      final int mask = keys.length - 1;
+   
+      int slot = SymbolTable.mix(key) & mask;
+   
+      for (int probes = 0; probes < keys.length; probes++)
+      {
+      
+         if (keys[slot] == EMPTY || keys[slot] == key)
+         {
+         
+            return slot;
+         
+         }
+      
+         slot = (slot + 1) & mask;
+      
+      }
+   
+      return NO_SLOT;
+   
+   }
+
+   private void rehash()
+   {
+   
+      final int[] newKeys = emptyKeys(this.keys.length * 2);
+      final long[] newValues = new long[this.keys.length * 2];
+   
+      for (int slot = 0; slot < this.keys.length; slot++)
+      {
+      
+         if (this.keys[slot] != EMPTY)
+         {
+         
+            final int newSlot = slotOf(newKeys, this.keys[slot]);
+         
+            newKeys[newSlot] = this.keys[slot];
+            newValues[newSlot] = this.values[slot];
+         
+         }
+      
+      }
+   
+      //only published once they are whole
+      this.values = newValues;
+      this.keys = newKeys;
+   
+   }
+
+   private static int[] emptyKeys(final int capacity)
+   {
+   
+      final int[] keys = new int[capacity];
+   
+      Arrays.fill(keys, EMPTY);
+   
+      return keys;
+   
+   }
+
+}
@@ -0,0 +1,254 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+//A hash map from non-negative int keys to object values, without boxing the keys.
+
+public class IntObjectMap<V>
+{
+
+   private static final int EMPTY = -1;
+   private static final int NO_SLOT = -1;
+
+   private int[] keys;
+   private Object[] values;
+
+   private int size = 0;
+
+   public IntObjectMap()
+   {
+   
+      this.keys = emptyKeys(4);
+      this.values = new Object[4];
+   
+   }
+
+   //null if the key is not in the map
+   @SuppressWarnings("unchecked")
+   public V get(final int key)
+   {
+   
+      if (key < 0)
+      {
+      
+         return null;
+      
+      }
+   
+      final int slot = slotOf(this.keys, key);
+   
+      return slot != NO_SLOT && this.keys[slot] == key ? (V) this.values[slot] : null;
+   
+   }
+
+   //The value that was there before, or null if the key was not in the map
+   @SuppressWarnings("unchecked")
+   public V put(final int key, final V value)
+   {
+   
+      if (key < 0)
+      {
+      
+         throw new IllegalArgumentException("Only non-negative keys are allowed -- " + key);
+      
+      }
+   
+      final int slot = slotOf(this.keys, key);
+   
+      final V previous = (V) this.values[slot];
+   
+      this.values[slot] = value;
+   
+      if (this.keys[slot] == key)
+      {
+      
+         return previous;
+      
+      }
+   
+      this.keys[slot] = key;
+      this.size++;
+   
+      if (this.size * 2 > this.keys.length)
+      {
+      
+         this.rehash();
+      
+      }
+   
+      return null;
+   
+   }
+
+   public V computeIfAbsent(final int key, final IntFunction<? extends V> valueOf)
+   {
+   
+      final V existing = this.get(key);
+   
+      if (existing != null)
+      {
+      
+         return existing;
+      
+      }
+   
+      final V value = valueOf.apply(key);
+   
+      this.put(key, value);
+   
+      return value;
+   
+   }
+
+   //The value that was there, or null if the key was not in the map
+   @SuppressWarnings("unchecked")
+   public V remove(final int key)
+   {
+   
+      if (key < 0)
+      {
+      
+         return null;
+      
+      }
+   
+      final int slot = slotOf(this.keys, key);
+   
+      if (slot == NO_SLOT || this.keys[slot] != key)
+      {
+      
+         return null;
+      
+      }
+   
+      final V previous = (V) this.values[slot];
+      final int mask = this.keys.length - 1;
+   
+      //Linear probing has no tombstones -- every later key in the run that could have sat in the hole moves back into it,
+      //so that no lookup stops short at the gap
+      int hole = slot;
+   
+      for (int next = (hole + 1) & mask; this.keys[next] != EMPTY; next = (next + 1) & mask)
+      {
+      
+         final int home = SymbolTable.mix(this.keys[next]) & mask;
+      
+         if (((next - home) & mask) >= ((next - hole) & mask))
+         {
+         
+            this.keys[hole] = this.keys[next];
+            this.values[hole] = this.values[next];
+         
+            hole = next;
+         
+         }
+      
+      }
+   
+      this.keys[hole] = EMPTY;
+      this.values[hole] = null;
+      this.size--;
+   
+      return previous;
+   
+   }
+
+   public int size()
+   {
+   
+      return this.size;
+   
+   }
+
+   public boolean isEmpty()
+   {
+   
+      return this.size == 0;
+   
+   }
+
+   @SuppressWarnings("unchecked")
+   public void forEachValue(final Consumer<? super V> action)
+   {
+   
+      for (int slot = 0; slot < this.keys.length; slot++)
+      {
+      
+         if (this.keys[slot] != EMPTY)
+         {
+         
+            action.accept((V) this.values[slot]);
+         
+         }
+      
+      }
+   
+   }
+
+   //Probes give up after going round the whole table once, for the same reason as in IntSet
+   private static int slotOf(final int[] keys, final int key)
+   {
+   
+      final int mask = keys.length - 1;
+   
+      int slot = SymbolTable.mix(key) & mask;
+   
+      for (int probes = 0; probes < keys.length; probes++)
+      {
+      
+         if (keys[slot] == EMPTY || keys[slot] == key)
+         {
+         
+            return slot;
+         
+         }
+      
+         slot = (slot + 1) & mask;
+      
+      }
+   
+      return NO_SLOT;
+   
+   }
+
+   private void rehash()
+   {
+   
+      final int[] newKeys = emptyKeys(this.keys.length * 2);
+      final Object[] newValues = new Object[this.keys.length * 2];
+   
+      for (int slot = 0; slot < this.keys.length; slot++)
+      {
+      
+         if (this.keys[slot] != EMPTY)
+         {
+         
+            final int newSlot = slotOf(newKeys, this.keys[slot]);
+         
+            newKeys[newSlot] = this.keys[slot];
+            newValues[newSlot] = this.values[slot];
+         
+         }
+      
+      }
+   
+      this.values = newValues;
+      this.keys = newKeys;
+   
+   }
+
+   private static int[] emptyKeys(final int capacity)
+   {
+   
+      final int[] keys = new int[capacity];
+   
+      Arrays.fill(keys, EMPTY);
+   
+      return keys;
+   
+   }
+
+}
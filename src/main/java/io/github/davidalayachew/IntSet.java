@@ -0,0 +1,217 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+//A hash set of non-negative ints, without any boxing.
+
+public class IntSet
+{
+
+   private static final int EMPTY = -1;
+   private static final int NO_SLOT = -1;
+
+   private int[] table;
+
+   private int size = 0;
+
+   public IntSet()
+   {
+   
+      this(4);
+   
+   }
+
+   public IntSet(final int expectedSize)
+   {
+   
+      this.table = emptyTable(Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) * 2);
+   
+   }
+
+   public boolean add(final int value)
+   {
+   
+      if (value < 0)
+      {
+      
+         throw new IllegalArgumentException("Only non-negative values are allowed -- " + value);
+      
+      }
+   
+      final int slot = slotOf(this.table, value);
+   
+      if (this.table[slot] == value)
+      {
+      
+         return false;
+      
+      }
+   
+      this.table[slot] = value;
+      this.size++;
+   
+      if (this.size * 2 > this.table.length)
+      {
+      
+         this.rehash();
+      
+      }
+   
+      return true;
+   
+   }
+
+   public boolean contains(final int value)
+   {
+   
+      if (value < 0)
+      {
+      
+         return false;
+      
+      }
+   
+      final int[] table = this.table;
+      final int slot = slotOf(table, value);
+   
+      return slot != NO_SLOT && table[slot] == value;
+   
+   }
+
+   public int size()
+   {
+   
+      return this.size;
+   
+   }
+
+   public boolean isEmpty()
+   {
+   
+      return this.size == 0;
+   
+   }
+
+   public void forEach(final IntConsumer action)
+   {
+   
+      for (final int each : this.table)
+      {
+      
+         if (each != EMPTY)
+         {
+         
+            action.accept(each);
+         
+         }
+      
+      }
+   
+   }
+
+   public boolean anyMatch(final IntPredicate predicate)
+   {
+   
+      for (final int each : this.table)
+      {
+      
+         if (each != EMPTY && predicate.test(each))
+         {
+         
+            return true;
+         
+         }
+      
+      }
+   
+      return false;
+   
+   }
+
+   public int[] toArray()
+   {
+   
+      final int[] output = new int[this.size];
+   
+      int index = 0;
+   
+      for (final int each : this.table)
+      {
+      
+         if (each != EMPTY)
+         {
+         
+            output[index++] = each;
+         
+         }
+      
+      }
+   
+      return output;
+   
+   }
+
+   //A probe gives up after going round the whole table once, and calls that a miss, rather than trusting that there is always
+   //an empty slot to stop at -- a table read without the lock held, while it is being filled, need not have one.
+   private static int slotOf(final int[] table, final int value)
+   {
+   
+      final int mask = table.length - 1;
+   
+      int slot = SymbolTable.mix(value) & mask;
+   
+      for (int probes = 0; probes < table.length; probes++)
+      {
+      
+         if (table[slot] == EMPTY || table[slot] == value)
+         {
+         
+            return slot;
+         
+         }
+      
+         slot = (slot + 1) & mask;
+      
+      }
+   
+      return NO_SLOT;
+   
+   }
+
+   private void rehash()
+   {
+   
+      final int[] newTable = emptyTable(this.table.length * 2);
+   
+      for (final int each : this.table)
+      {
+      
+         if (each != EMPTY)
+         {
+         
+            newTable[slotOf(newTable, each)] = each;
+         
+         }
+      
+      }
+   
+      //only published once it is whole
+      this.table = newTable;
+   
+   }
+
+   private static int[] emptyTable(final int capacity)
+   {
+   
+      final int[] table = new int[capacity];
+   
+      Arrays.fill(table, EMPTY);
+   
+      return table;
+   
+   }
+
+}
@@ -0,0 +1,748 @@
+
+package io.github.davidalayachew;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+//An append-only file of the facts an engine has accepted, so that they survive a restart.
+//Each record is [varint length][kind][fields][crc32 of kind and fields], with names as varint length + UTF-8,
+//so a torn record left by a crash is found on the next open and cut off, instead of being replayed as garbage.
+//
+//Appending only copies the record into a buffer. Whoever waits for it first writes out everything buffered
+//so far and forces it to disk once -- so many writers waiting at the same time share a single force.
+//
+//Nothing is ever read or written more than a buffer at a time, so neither the journal nor a checkpoint is limited
+//by how much fits in memory, or in a single mapping.
+
+public final class Journal implements Closeable
+{
+
+   private static final byte IDENTIFIER_IS_A_TYPE              = 1;
+   private static final byte FREQUENCY_TYPE_IS_TYPE            = 2;
+   private static final byte IDENTIFIER_HAS_QUANTITY_TYPE      = 3;
+   private static final byte FREQUENCY_TYPE_HAS_QUANTITY_TYPE  = 4;
+
+   private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+   //the most a varint length can take
+   private static final int MAX_VAR_LONG_BYTES = 10;
+
+   //far past any record encode could have written, so a length this big can only be garbage
+   private static final long MAX_RECORD_BYTES = Integer.MAX_VALUE - 2 * MAX_VAR_LONG_BYTES;
+
+   private final Path file;
+
+   //only replaced by rotate, under the monitor, and never while a flush is writing to it
+   private FileChannel channel;
+
+   private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+   private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+
+   private long appended = 0;
+   private long durable = 0;
+   private long fileBytes;
+
+   private boolean flushing = false;
+   private IOException failure = null;
+
+   private Journal(final Path file, final FileChannel channel, final long fileBytes)
+   {
+   
+      this.file = file;
+      this.channel = channel;
+      this.fileBytes = fileBytes;
+   
+   }
+
+   //Opens the journal, creating it if needed, and hands every intact record in it to the action, in order
+   public static Journal open(final Path file, final Consumer<? super Parseable> action) throws IOException
+   {
+   
+      final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+   
+      try
+      {
+      
+         final long validBytes = read(channel, action);
+      
+         channel.truncate(validBytes);
+         channel.position(validBytes);
+      
+         return new Journal(file, channel, validBytes);
+      
+      }
+   
+      catch (final IOException | RuntimeException exception)
+      {
+      
+         channel.close();
+      
+         throw exception;
+      
+      }
+   
+   }
+
+   //Hands every intact record of a checkpoint written by writeCheckpoint to the action, in order
+   public static void readCheckpoint(final Path file, final Consumer<? super Parseable> action) throws IOException
+   {
+   
+      try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+      {
+      
+         read(channel, action);
+      
+      }
+   
+   }
+
+   //The facts are streamed through one buffer into a new file that only replaces the old checkpoint once it is safely
+   //on disk -- a crash part way through leaves the old checkpoint as it was.
+   public static void writeCheckpoint(final Path file, final Consumer<Consumer<Parseable>> facts) throws IOException
+   {
+   
+      final Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+   
+      try (final FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+      {
+      
+         final ByteBuffer[] buffer = {ByteBuffer.allocate(INITIAL_BUFFER_BYTES)};
+      
+         facts.accept
+         (
+            fact ->
+            {
+            
+               buffer[0] = encode(buffer[0], fact);
+            
+               //written out once half full, so the next record nearly always fits without the buffer growing
+               if (buffer[0].position() >= INITIAL_BUFFER_BYTES / 2)
+               {
+               
+                  writeFullyUnchecked(channel, buffer[0].flip());
+               
+                  buffer[0].clear();
+               
+               }
+            
+            }
+         );
+      
+         writeFully(channel, buffer[0].flip());
+      
+         channel.force(true);
+      
+      }
+   
+      catch (final IOException | RuntimeException exception)
+      {
+      
+         Files.deleteIfExists(temporaryFile);
+      
+         if (exception instanceof UncheckedIOException unchecked)
+         {
+         
+            throw unchecked.getCause();
+         
+         }
+      
+         throw exception;
+      
+      }
+   
+      Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+   
+   }
+
+   //A sequence number to hand to awaitDurable
+   public synchronized long append(final Parseable fact)
+   {
+   
+      this.pending = encode(this.pending, fact);
+   
+      return ++this.appended;
+   
+   }
+
+   //The sequence of the last fact appended -- waiting on it waits for everything appended so far
+   public synchronized long lastSequence()
+   {
+   
+      return this.appended;
+   
+   }
+
+   public void awaitDurable(final long sequence) throws IOException
+   {
+   
+      while (true)
+      {
+      
+         final ByteBuffer batch;
+         final long batchEnd;
+         final FileChannel channel;
+      
+         synchronized (this)
+         {
+         
+            while (this.flushing && this.durable < sequence && this.failure == null)
+            {
+            
+               this.waitForFlush();
+            
+            }
+         
+            if (this.failure != null)
+            {
+            
+               throw new IOException("The journal could not be written", this.failure);
+            
+            }
+         
+            if (this.durable >= sequence)
+            {
+            
+               return;
+            
+            }
+         
+            //our record is still buffered, and nobody is writing -- so write everything buffered so far
+            batch = this.pending;
+            batchEnd = this.appended;
+            channel = this.channel;
+         
+            this.pending = this.spare.clear();
+            this.spare = batch;
+            this.flushing = true;
+         
+         }
+      
+         IOException failure = null;
+      
+         try
+         {
+         
+            writeFully(channel, batch.flip());
+         
+            channel.force(false);
+         
+         }
+      
+         catch (final IOException exception)
+         {
+         
+            failure = exception;
+         
+         }
+      
+         synchronized (this)
+         {
+         
+            //once a batch is lost, nothing after it can be called durable either
+            if (failure != null)
+            {
+            
+               this.failure = failure;
+            
+            }
+         
+            else
+            {
+            
+               this.durable = batchEnd;
+               this.fileBytes += batch.limit();
+            
+            }
+         
+            batch.clear();
+         
+            this.flushing = false;
+            this.notifyAll();
+         
+         }
+      
+      }
+   
+   }
+
+   //Bytes in the journal, counting those still buffered
+   public synchronized long size()
+   {
+   
+      return this.fileBytes + this.pending.position();
+   
+   }
+
+   //Moves everything in the journal, buffered or not, onto the end of the retired file -- which is made if it is not there --
+   //and starts the journal again from empty. Until the caller deletes the retired file, it has to be replayed before the
+   //journal on the next open. Any failure leaves the journal failed, like a failed flush does.
+   public synchronized void rotate(final Path retired) throws IOException
+   {
+   
+      while (this.flushing)
+      {
+      
+         this.waitForFlush();
+      
+      }
+   
+      if (this.failure != null)
+      {
+      
+         throw new IOException("The journal could not be written", this.failure);
+      
+      }
+   
+      try
+      {
+      
+         writeFully(this.channel, this.pending.flip());
+      
+         this.channel.force(false);
+         this.pending.clear();
+      
+         if (Files.exists(retired))
+         {
+         
+            //The last checkpoint never finished, so the retired file still holds facts that are in no checkpoint -- these
+            //come after them. A crash part way through only leaves some facts in both files, and replaying one twice is harmless.
+            try (final FileChannel output = FileChannel.open(retired, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+            {
+            
+               final long size = this.channel.size();
+            
+               for (long copied = 0; copied < size; )
+               {
+               
+                  copied += this.channel.transferTo(copied, size - copied, output);
+               
+               }
+            
+               output.force(false);
+            
+            }
+         
+            this.channel.truncate(0);
+            this.channel.position(0);
+            this.channel.force(true);
+         
+         }
+      
+         else
+         {
+         
+            this.channel.close();
+         
+            Files.move(this.file, retired, StandardCopyOption.ATOMIC_MOVE);
+         
+            this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+         
+         }
+      
+         this.durable = this.appended;
+         this.fileBytes = 0;
+      
+      }
+   
+      catch (final IOException exception)
+      {
+      
+         this.failure = exception;
+      
+         throw exception;
+      
+      }
+   
+      finally
+      {
+      
+         this.notifyAll();
+      
+      }
+   
+   }
+
+   @Override
+   public void close() throws IOException
+   {
+   
+      final long sequence;
+   
+      synchronized (this)
+      {
+      
+         sequence = this.appended;
+      
+      }
+   
+      try
+      {
+      
+         this.awaitDurable(sequence);
+      
+      }
+   
+      finally
+      {
+      
+         synchronized (this)
+         {
+         
+            this.channel.close();
+         
+         }
+      
+      }
+   
+   }
+
+   private void waitForFlush() throws InterruptedIOException
+   {
+   
+      try
+      {
+      
+         this.wait();
+      
+      }
+   
+      catch (final InterruptedException exception)
+      {
+      
+         Thread.currentThread().interrupt();
+      
+         throw new InterruptedIOException("Interrupted while waiting for the journal to be written");
+      
+      }
+   
+   }
+
+   private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException
+   {
+   
+      while (buffer.hasRemaining())
+      {
+      
+         channel.write(buffer);
+      
+      }
+   
+   }
+
+   //For writing from inside a Consumer -- writeCheckpoint unwraps it again
+   private static void writeFullyUnchecked(final FileChannel channel, final ByteBuffer buffer)
+   {
+   
+      try
+      {
+      
+         writeFully(channel, buffer);
+      
+      }
+   
+      catch (final IOException exception)
+      {
+      
+         throw new UncheckedIOException(exception);
+      
+      }
+   
+   }
+
+   //The number of bytes taken by the intact records at the start of the file
+   private static long read(final FileChannel channel, final Consumer<? super Parseable> action) throws IOException
+   {
+   
+      final long size = channel.size();
+   
+      final CRC32 crc = new CRC32();
+   
+      ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES).flip();
+   
+      //the offset in the file of the buffer's position
+      long consumed = 0;
+   
+      while (true)
+      {
+      
+         buffer = fill(channel, buffer, consumed, MAX_VAR_LONG_BYTES);
+      
+         if (!buffer.hasRemaining())
+         {
+         
+            return consumed;
+         
+         }
+      
+         final int start = buffer.position();
+      
+         final long length = readVarLong(buffer);
+         final int lengthBytes = buffer.position() - start;
+      
+         if (length <= 0 || length > MAX_RECORD_BYTES || length > size - consumed - lengthBytes - Integer.BYTES)
+         {
+         
+            return consumed;
+         
+         }
+      
+         final int recordBytes = lengthBytes + (int) length + Integer.BYTES;
+      
+         buffer = fill(channel, buffer.position(start), consumed, recordBytes);
+      
+         //only if the file was cut short while we read it
+         if (buffer.remaining() < recordBytes)
+         {
+         
+            return consumed;
+         
+         }
+      
+         final ByteBuffer record = buffer.slice(buffer.position() + lengthBytes, (int) length);
+      
+         crc.reset();
+         crc.update(record.duplicate());
+      
+         if ((int) crc.getValue() != buffer.getInt(buffer.position() + lengthBytes + (int) length))
+         {
+         
+            return consumed;
+         
+         }
+      
+         action.accept(decode(record));
+      
+         buffer.position(buffer.position() + recordBytes);
+      
+         consumed += recordBytes;
+      
+      }
+   
+   }
+
+   //Makes sure at least the given number of bytes are left in the buffer, reading on from the file -- and growing the buffer,
+   //for a record bigger than it -- as needed. The buffer's position is at the given offset in the file, and is kept
+   //there. Fewer bytes are left only at the end of the file.
+   private static ByteBuffer fill(final FileChannel channel, final ByteBuffer buffer, final long offset, final int bytes) throws IOException
+   {
+   
+      if (buffer.remaining() >= bytes)
+      {
+      
+         return buffer;
+      
+      }
+   
+      final ByteBuffer output = bytes > buffer.capacity() ? ByteBuffer.allocate(bytes).put(buffer) : buffer.compact();
+   
+      while (output.position() < bytes)
+      {
+      
+         if (channel.read(output, offset + output.position()) < 0)
+         {
+         
+            break;
+         
+         }
+      
+      }
+   
+      return output.flip();
+   
+   }
+
+   private static ByteBuffer encode(final ByteBuffer buffer, final Parseable fact)
+   {
+   
+      final byte[][] names;
+      final byte kind;
+      final long count;
+   
+      switch (fact)
+      {
+      
+         case IdentifierIsAType(Identifier identifier, Type type) ->
+         {
+         
+            kind = IDENTIFIER_IS_A_TYPE;
+            names = new byte[][] {utf8(identifier.name()), utf8(type.name())};
+            count = 0;
+         
+         }
+      
+         case FrequencyTypeIsType(FrequencyType(Frequency frequency, Type subType), Type superType) ->
+         {
+         
+            kind = FREQUENCY_TYPE_IS_TYPE;
+            names = new byte[][] {utf8(subType.name()), utf8(superType.name())};
+            count = frequency.ordinal();
+         
+         }
+      
+         case IdentifierHasQuantityType(Identifier identifier, QuantityType(Quantity quantity, Type type)) ->
+         {
+         
+            kind = IDENTIFIER_HAS_QUANTITY_TYPE;
+            names = new byte[][] {utf8(identifier.name()), utf8(type.name())};
+            count = quantity.count();
+         
+         }
+      
+         case FrequencyTypeHasQuantityType(FrequencyType(Frequency frequency, Type subType), QuantityType(Quantity quantity, Type type)) ->
+         {
+         
+            //the frequency goes in the top bits of the count, as there is only the one
+            kind = FREQUENCY_TYPE_HAS_QUANTITY_TYPE;
+            names = new byte[][] {utf8(subType.name()), utf8(type.name())};
+            count = quantity.count() << 8 | frequency.ordinal();
+         
+         }
+      
+         default -> throw new IllegalArgumentException("Only facts can be journaled -- " + fact);
+      
+      }
+   
+      final int length = 1 + varLongBytes(names[0].length) + names[0].length + varLongBytes(names[1].length) + names[1].length + varLongBytes(count);
+      final int recordBytes = varLongBytes(length) + length + Integer.BYTES;
+   
+      ByteBuffer output = buffer;
+   
+      if (output.remaining() < recordBytes)
+      {
+      
+         output = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + recordBytes)).put(output.flip());
+      
+      }
+   
+      writeVarLong(output, length);
+   
+      final int bodyStart = output.position();
+   
+      output.put(kind);
+      writeVarLong(output, names[0].length);
+      output.put(names[0]);
+      writeVarLong(output, names[1].length);
+      output.put(names[1]);
+      writeVarLong(output, count);
+   
+      final CRC32 crc = new CRC32();
+   
+      crc.update(output.slice(bodyStart, length));
+   
+      output.putInt((int) crc.getValue());
+   
+      return output;
+   
+   }
+
+   private static Parseable decode(final ByteBuffer record)
+   {
+   
+      final byte kind = record.get();
+      final String first = readName(record);
+      final String second = readName(record);
+      final long count = readVarLong(record);
+   
+      return
+         switch (kind)
+         {
+         
+            case IDENTIFIER_IS_A_TYPE ->
+               new IdentifierIsAType(new Identifier(first), new Type(second));
+         
+            case FREQUENCY_TYPE_IS_TYPE ->
+               new FrequencyTypeIsType(new FrequencyType(Frequency.values()[(int) count], new Type(first)), new Type(second));
+         
+            case IDENTIFIER_HAS_QUANTITY_TYPE ->
+               new IdentifierHasQuantityType(new Identifier(first), new QuantityType(new Quantity(count), new Type(second)));
+         
+            case FREQUENCY_TYPE_HAS_QUANTITY_TYPE ->
+               new FrequencyTypeHasQuantityType(new FrequencyType(Frequency.values()[(int) (count & 0xFF)], new Type(first)), new QuantityType(new Quantity(count >>> 8), new Type(second)));
+         
+            default -> throw new IllegalStateException("Unknown journal record kind -- " + kind);
+         
+         };
+   
+   }
+
+   private static byte[] utf8(final String name)
+   {
+   
+      return name.getBytes(StandardCharsets.UTF_8);
+   
+   }
+
+   private static String readName(final ByteBuffer record)
+   {
+   
+      final byte[] bytes = new byte[(int) readVarLong(record)];
+   
+      record.get(bytes);
+   
+      return new String(bytes, StandardCharsets.UTF_8);
+   
+   }
+
+   private static int varLongBytes(final long value)
+   {
+   
+      return Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 6) / 7);
+   
+   }
+
+   private static void writeVarLong(final ByteBuffer output, final long value)
+   {
+   
+      long remaining = value;
+   
+      while ((remaining & ~0x7FL) != 0)
+      {
+      
+         output.put((byte) ((remaining & 0x7F) | 0x80));
+      
+         remaining >>>= 7;
+      
+      }
+   
+      output.put((byte) remaining);
+   
+   }
+
+   //-1 if the buffer runs out part way through
+   private static long readVarLong(final ByteBuffer input)
+   {
+   
+      long value = 0;
+   
+      for (int shift = 0; shift < Long.SIZE && input.hasRemaining(); shift += 7)
+      {
+      
+         final byte next = input.get();
+      
+         value |= (long) (next & 0x7F) << shift;
+      
+         if (next >= 0)
+         {
+         
+            return value;
+         
+         }
+      
+      }
+   
+      return -1;
+   
+   }
+
+}
@@ -0,0 +1,84 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+
+//Which ids of a SymbolTable are currently mentioned by at least one fact.
+//Every fact that mentions an id references it once, and would release it again if the fact were retracted,
+//so asking whether a name is known never has to look at the facts themselves.
+
+public class KnownSymbols
+{
+
+   private int[] referenceCounts = new int[16];
+
+   private int size = 0;
+
+   public void reference(final int id)
+   {
+   
+      if (id < 0)
+      {
+      
+         throw new IllegalArgumentException("Only non-negative ids are allowed -- " + id);
+      
+      }
+   
+      if (id >= this.referenceCounts.length)
+      {
+      
+         this.referenceCounts = Arrays.copyOf(this.referenceCounts, Math.max(id + 1, this.referenceCounts.length * 2));
+      
+      }
+   
+      if (this.referenceCounts[id]++ == 0)
+      {
+      
+         this.size++;
+      
+      }
+   
+   }
+
+   public void release(final int id)
+   {
+   
+      if (!this.isKnown(id))
+      {
+      
+         throw new IllegalStateException("Cannot release an id that is not referenced -- " + id);
+      
+      }
+   
+      if (--this.referenceCounts[id] == 0)
+      {
+      
+         this.size--;
+      
+      }
+   
+   }
+
+   public boolean isKnown(final int id)
+   {
+   
+      return this.referenceCount(id) > 0;
+   
+   }
+
+   public int referenceCount(final int id)
+   {
+   
+      return id >= 0 && id < this.referenceCounts.length ? this.referenceCounts[id] : 0;
+   
+   }
+
+   //How many ids are known right now
+   public int size()
+   {
+   
+      return this.size;
+   
+   }
+
+}
@@ -1,18 +1,87 @@
 package io.github.davidalayachew;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import javax.management.JMException;
 
 public class Main
 {
 
-   public static void main(String[] args)
+   public static void main(String[] args) throws IOException
    {
    
       // final var rulesEngine = new RulesEngine_Attempt2();
    // 
       // rulesEngine.put(new IdentifierIsAType(List.of("David", "Programmer")));
       
-      new RulesEngine();
+      //--data DIRECTORY keeps the facts on disk between runs, --port PORT answers over TCP instead of opening the window,
+      //--forward works out everything the rules imply as facts arrive, and any other arguments are rule files, loaded before either
+      Path data = null;
+      Integer port = null;
+      boolean forwardChaining = false;
+      final List<Path> ruleFiles = new ArrayList<>();
+   
+      for (int index = 0; index < args.length; index++)
+      {
+      
+         switch (args[index])
+         {
+         
+            case "--data"    -> data = Path.of(args[++index]);
+            case "--port"    -> port = Integer.parseInt(args[++index]);
+            case "--forward" -> forwardChaining = true;
+            default          -> ruleFiles.add(Path.of(args[index]));
+         
+         }
+      
+      }
+   
+      final var engine = data == null ? new HeadlessRulesEngine(forwardChaining) : HeadlessRulesEngine.open(data, forwardChaining);
+   
+      try
+      {
+      
+         engine.metrics().registerMBean("main");
+      
+      }
+   
+      catch (final JMException exception)
+      {
+      
+         System.out.println("Could not register the engine metrics with JMX -- " + exception);
+      
+      }
+   
+      for (final Path ruleFile : ruleFiles)
+      {
+      
+         final BulkLoader.Report report = new BulkLoader(engine).load(ruleFile);
+      
+         System.out.printf("%s -- %d lines, %d errors, %.0f lines/sec%n", ruleFile, report.lines(), report.errorCount(), report.linesPerSecond());
+      
+         report.errors().forEach(error -> System.out.println("   line " + error.lineNumber() + " -- " + error.text()));
+      
+      }
+   
+      if (port == null)
+      {
+      
+         new RulesEngine(engine);
+      
+         return;
+      
+      }
+   
+      try (final QueryServer server = new QueryServer(engine, port); engine)
+      {
+      
+         System.out.println("Listening on localhost:" + server.port());
+      
+         server.serve();
+      
+      }
    
    }
 
@@ -0,0 +1,1006 @@
+
+package io.github.davidalayachew;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+//A read-only engine, answering straight out of a memory mapped file that HeadlessRulesEngine.writeSnapshot wrote.
+//Nothing is deserialized on open -- every lookup reads the mapped bytes where they are, so opening is just checking a header.
+//
+//The file is a header of [magic][version][section count][offset of each section], and then the sections, in this order --
+//
+//   identifiers, types           [count][hash table size][name offsets, count + 1][hash table][known bits][UTF-8 names]
+//   is instances, is rules,      [row count][row offsets, row count + 1][targets, sorted within each row]
+//   type ancestors
+//   has instances, has rules     the same, followed by one long count per target
+//
+//Rows are indexed by the ids of the matching symbol section, and every number is big endian.
+//
+//There is no section from types to their instances, so a WHO question checks every identifier in turn, the same way an
+//IS question would -- fine for the sizes a snapshot is meant for, but in proportion to the identifiers, not the answer.
+
+public final class MappedSnapshot
+{
+
+   private static final int MAGIC = 0x52554C45; //RULE
+   private static final int VERSION = 1;
+
+   private static final int IDENTIFIERS     = 0;
+   private static final int TYPES           = 1;
+   private static final int IS_INSTANCES    = 2;
+   private static final int IS_RULES        = 3;
+   private static final int TYPE_ANCESTORS  = 4;
+   private static final int HAS_INSTANCES   = 5;
+   private static final int HAS_RULES       = 6;
+   private static final int SECTION_COUNT   = 7;
+
+   private static final int HEADER_BYTES = 3 * Integer.BYTES + SECTION_COUNT * Long.BYTES;
+
+   private static final int EMPTY_SLOT = 0;
+
+   private static final ThreadLocal<Normalizer> NORMALIZER = ThreadLocal.withInitial(Normalizer::new);
+
+   private final ByteBuffer buffer;
+   private final int[] sections = new int[SECTION_COUNT];
+
+   private MappedSnapshot(final ByteBuffer buffer) throws IOException
+   {
+   
+      this.buffer = buffer;
+   
+      if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+      {
+      
+         throw new IOException("Not a rules engine snapshot");
+      
+      }
+   
+      if (buffer.getInt(Integer.BYTES) != VERSION || buffer.getInt(2 * Integer.BYTES) != SECTION_COUNT)
+      {
+      
+         throw new IOException("Unsupported snapshot version -- " + buffer.getInt(Integer.BYTES));
+      
+      }
+   
+      for (int section = 0; section < SECTION_COUNT; section++)
+      {
+      
+         final long offset = buffer.getLong(3 * Integer.BYTES + section * Long.BYTES);
+      
+         if (offset < HEADER_BYTES || offset >= buffer.limit())
+         {
+         
+            throw new IOException("Snapshot section " + section + " is out of bounds -- " + offset);
+         
+         }
+      
+         this.sections[section] = (int) offset;
+      
+      }
+   
+   }
+
+   public static MappedSnapshot open(final Path file) throws IOException
+   {
+   
+      try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+      {
+      
+         if (channel.size() > Integer.MAX_VALUE)
+         {
+         
+            throw new IOException("Snapshots are limited to 2 GB -- " + channel.size());
+         
+         }
+      
+         //the mapping stays valid after the channel is closed
+         return new MappedSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      
+      }
+   
+   }
+
+   //Only questions can be answered -- a snapshot never changes, so a fact gets READ_ONLY
+   public Response submit(final String text)
+   {
+   
+      return
+         switch (ClassParser.parse(NORMALIZER.get().normalize(text)).orElse(null))
+         {
+         
+            case null                                 -> Response.INVALID_FORMAT;
+            case IsIdentifierAType iiat               -> this.processIsIdentifierAType(iiat);
+            case WhatIsIdentifier wii                 -> this.processWhatIsIdentifier(wii).response();
+            case WhoIsAType wiat                      -> this.processWhoIsAType(wiat).response();
+            case HowManyTypeDoesIdentifierHave hmtdih -> this.processHowManyTypeDoesIdentifierHave(hmtdih).response();
+            case IdentifierIsAType iiat               -> Response.READ_ONLY;
+            case IdentifierHasQuantityType ihqt       -> Response.READ_ONLY;
+            case FrequencyTypeIsType ftit             -> Response.READ_ONLY;
+            case FrequencyTypeHasQuantityType fthqt   -> Response.READ_ONLY;
+            case Parseable parseable                  -> Response.NOT_YET_IMPLEMENTED;
+         
+         };
+   
+   }
+
+   //submit, but as text someone can read -- the same text HeadlessRulesEngine.answer gives
+   public String answer(final String text)
+   {
+   
+      final HeadlessRulesEngine.Answer<?> answer =
+         switch (ClassParser.parse(NORMALIZER.get().normalize(text)).orElse(null))
+         {
+         
+            case WhatIsIdentifier wii                 -> this.processWhatIsIdentifier(wii);
+            case WhoIsAType wiat                      -> this.processWhoIsAType(wiat);
+            case HowManyTypeDoesIdentifierHave hmtdih -> this.processHowManyTypeDoesIdentifierHave(hmtdih);
+            case null, default                        -> null;
+         
+         };
+   
+      if (answer == null)
+      {
+      
+         return this.submit(text).name();
+      
+      }
+   
+      final StringBuilder output = new StringBuilder(answer.response().name());
+   
+      answer.elements().forEach(element -> output.append(' ').append(element));
+   
+      return output.toString();
+   
+   }
+
+   //The same answers HeadlessRulesEngine.processIsIdentifierAType gave when the snapshot was written
+   public Response processIsIdentifierAType(final IsIdentifierAType isQuery)
+   {
+   
+      final int givenIdentifier = this.idOf(IDENTIFIERS, isQuery.identifier().name());
+      final int givenType = this.idOf(TYPES, isQuery.type().name());
+   
+      UNKNOWN_IDENTIFIER:
+      if (!this.isKnown(IDENTIFIERS, givenIdentifier))
+      {
+      
+         return Response.UNKNOWN_IDENTIFIER;
+      
+      }
+   
+      UNKNOWN_TYPE:
+      if (!this.isKnown(TYPES, givenType))
+      {
+      
+         return Response.UNKNOWN_TYPE;
+      
+      }
+   
+      final int base = this.sections[IS_INSTANCES];
+      final int start = this.rowStart(base, givenIdentifier);
+      final int end = this.rowStart(base, givenIdentifier + 1);
+   
+      IDENTIFIER_HAS_NO_RELATIONSHIPS:
+      if (start == end)
+      {
+      
+         return Response.IDENTIFIER_HAS_NO_RELATIONSHIPS;
+      
+      }
+   
+      CORRECT:
+      if (this.contains(base, givenIdentifier, givenType))
+      {
+      
+         return Response.CORRECT;
+      
+      }
+   
+      INDIRECT_CORRECT:
+      for (int index = start; index < end; index++)
+      {
+      
+         if (this.contains(this.sections[TYPE_ANCESTORS], this.target(base, index), givenType))
+         {
+         
+            return Response.CORRECT;
+         
+         }
+      
+      }
+   
+      return Response.FALL_THROUGH;
+   
+   }
+
+   public HeadlessRulesEngine.Answer<Type> processWhatIsIdentifier(final WhatIsIdentifier whatQuery)
+   {
+   
+      final int givenIdentifier = this.idOf(IDENTIFIERS, whatQuery.identifier().name());
+   
+      UNKNOWN_IDENTIFIER:
+      if (!this.isKnown(IDENTIFIERS, givenIdentifier))
+      {
+      
+         return new HeadlessRulesEngine.Answer<>(Response.UNKNOWN_IDENTIFIER, List.of());
+      
+      }
+   
+      final int base = this.sections[IS_INSTANCES];
+      final int start = this.rowStart(base, givenIdentifier);
+      final int end = this.rowStart(base, givenIdentifier + 1);
+   
+      IDENTIFIER_HAS_NO_RELATIONSHIPS:
+      if (start == end)
+      {
+      
+         return new HeadlessRulesEngine.Answer<>(Response.IDENTIFIER_HAS_NO_RELATIONSHIPS, List.of());
+      
+      }
+   
+      final IntSet found = new IntSet();
+      final int ancestors = this.sections[TYPE_ANCESTORS];
+   
+      for (int index = start; index < end; index++)
+      {
+      
+         final int directType = this.target(base, index);
+      
+         found.add(directType);
+      
+         for (int ancestor = this.rowStart(ancestors, directType); ancestor < this.rowStart(ancestors, directType + 1); ancestor++)
+         {
+         
+            found.add(this.target(ancestors, ancestor));
+         
+         }
+      
+      }
+   
+      return new HeadlessRulesEngine.Answer<>(Response.OK, this.namesOf(TYPES, found, Type::new));
+   
+   }
+
+   public HeadlessRulesEngine.Answer<Identifier> processWhoIsAType(final WhoIsAType whoQuery)
+   {
+   
+      final int givenType = this.idOf(TYPES, whoQuery.type().name());
+   
+      UNKNOWN_TYPE:
+      if (!this.isKnown(TYPES, givenType))
+      {
+      
+         return new HeadlessRulesEngine.Answer<>(Response.UNKNOWN_TYPE, List.of());
+      
+      }
+   
+      final IntSet found = new IntSet();
+   
+      for (int identifier = 0; identifier < this.identifierCount(); identifier++)
+      {
+      
+         if (this.isA(identifier, givenType))
+         {
+         
+            found.add(identifier);
+         
+         }
+      
+      }
+   
+      return new HeadlessRulesEngine.Answer<>(found.isEmpty() ? Response.FALL_THROUGH : Response.OK, this.namesOf(IDENTIFIERS, found, Identifier::new));
+   
+   }
+
+   //The same answer HeadlessRulesEngine gives -- a count the identifier was given wins, and otherwise HasRollup picks
+   //between the HAS rules of every type the identifier is
+   public HeadlessRulesEngine.Answer<QuantityType> processHowManyTypeDoesIdentifierHave(final HowManyTypeDoesIdentifierHave howManyQuery)
+   {
+   
+      final int givenIdentifier = this.idOf(IDENTIFIERS, howManyQuery.identifier().name());
+      final int givenType = this.idOf(TYPES, howManyQuery.type().name());
+   
+      UNKNOWN_IDENTIFIER:
+      if (!this.isKnown(IDENTIFIERS, givenIdentifier))
+      {
+      
+         return new HeadlessRulesEngine.Answer<>(Response.UNKNOWN_IDENTIFIER, List.of());
+      
+      }
+   
+      UNKNOWN_TYPE:
+      if (!this.isKnown(TYPES, givenType))
+      {
+      
+         return new HeadlessRulesEngine.Answer<>(Response.UNKNOWN_TYPE, List.of());
+      
+      }
+   
+      long count = this.countOf(this.sections[HAS_INSTANCES], givenIdentifier, givenType);
+   
+      INHERITED:
+      if (count == HasRollup.NO_COUNT)
+      {
+      
+         final HasRollup rollup = new HasRollup(this::typeIsA);
+      
+         final int base = this.sections[IS_INSTANCES];
+         final int ancestors = this.sections[TYPE_ANCESTORS];
+      
+         for (int index = this.rowStart(base, givenIdentifier); index < this.rowStart(base, givenIdentifier + 1); index++)
+         {
+         
+            final int directType = this.target(base, index);
+         
+            this.offerHasRule(rollup, directType, givenType);
+         
+            for (int ancestor = this.rowStart(ancestors, directType); ancestor < this.rowStart(ancestors, directType + 1); ancestor++)
+            {
+            
+               this.offerHasRule(rollup, this.target(ancestors, ancestor), givenType);
+            
+            }
+         
+         }
+      
+         count = rollup.count(givenType);
+      
+      }
+   
+      return
+         count == HasRollup.NO_COUNT
+            ?  new HeadlessRulesEngine.Answer<>(Response.FALL_THROUGH, List.of())
+            :  new HeadlessRulesEngine.Answer<>(Response.OK, List.of(new QuantityType(new Quantity(count), howManyQuery.type())))
+            ;
+   
+   }
+
+   public int identifierCount()
+   {
+   
+      return this.buffer.getInt(this.sections[IDENTIFIERS]);
+   
+   }
+
+   public int typeCount()
+   {
+   
+      return this.buffer.getInt(this.sections[TYPES]);
+   
+   }
+
+   //processIsIdentifierAType's CORRECT, for an identifier that is already known to be in range
+   private boolean isA(final int identifier, final int type)
+   {
+   
+      final int base = this.sections[IS_INSTANCES];
+   
+      for (int index = this.rowStart(base, identifier); index < this.rowStart(base, identifier + 1); index++)
+      {
+      
+         if (this.typeIsA(this.target(base, index), type))
+         {
+         
+            return true;
+         
+         }
+      
+      }
+   
+      return false;
+   
+   }
+
+   private boolean typeIsA(final int subType, final int superType)
+   {
+   
+      return subType == superType || this.contains(this.sections[TYPE_ANCESTORS], subType, superType);
+   
+   }
+
+   private void offerHasRule(final HasRollup rollup, final int source, final int type)
+   {
+   
+      final long count = this.countOf(this.sections[HAS_RULES], source, type);
+   
+      if (count != HasRollup.NO_COUNT)
+      {
+      
+         rollup.offer(type, source, count);
+      
+      }
+   
+   }
+
+   //The count stored with the target in a quantity section, or NO_COUNT if the row does not have the target
+   private long countOf(final int base, final int row, final int target)
+   {
+   
+      final int index = this.indexOf(base, row, target);
+   
+      if (index < 0)
+      {
+      
+         return HasRollup.NO_COUNT;
+      
+      }
+   
+      final int rowCount = this.buffer.getInt(base);
+      final int edges = this.rowStart(base, rowCount);
+   
+      return this.buffer.getLong(base + (rowCount + 2 + edges) * Integer.BYTES + index * Long.BYTES);
+   
+   }
+
+   private <E> List<E> namesOf(final int section, final IntSet ids, final Function<String, E> elementOf)
+   {
+   
+      final String[] names = new String[ids.size()];
+   
+      final int[] index = {0};
+   
+      ids.forEach(id -> names[index[0]++] = this.nameOf(section, id));
+   
+      Arrays.sort(names);
+   
+      final List<E> output = new ArrayList<>(names.length);
+   
+      for (final String name : names)
+      {
+      
+         output.add(elementOf.apply(name));
+      
+      }
+   
+      return output;
+   
+   }
+
+   private String nameOf(final int section, final int id)
+   {
+   
+      final int base = this.sections[section];
+      final int count = this.buffer.getInt(base);
+      final int tableSize = this.buffer.getInt(base + Integer.BYTES);
+   
+      final int nameOffsets = base + 2 * Integer.BYTES;
+      final int names = nameOffsets + (count + 1 + tableSize) * Integer.BYTES + knownWords(count) * Long.BYTES;
+   
+      final int nameStart = this.buffer.getInt(nameOffsets + id * Integer.BYTES);
+      final byte[] bytes = new byte[this.buffer.getInt(nameOffsets + (id + 1) * Integer.BYTES) - nameStart];
+   
+      this.buffer.get(names + nameStart, bytes);
+   
+      return new String(bytes, StandardCharsets.UTF_8);
+   
+   }
+
+   //NOT_FOUND if the name is not in the given symbol section
+   private int idOf(final int section, final String name)
+   {
+   
+      final int base = this.sections[section];
+      final int count = this.buffer.getInt(base);
+      final int tableSize = this.buffer.getInt(base + Integer.BYTES);
+   
+      if (tableSize == 0)
+      {
+      
+         return SymbolTable.NOT_FOUND;
+      
+      }
+   
+      final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+   
+      final int nameOffsets = base + 2 * Integer.BYTES;
+      final int table = nameOffsets + (count + 1) * Integer.BYTES;
+      final int names = table + tableSize * Integer.BYTES + knownWords(count) * Long.BYTES;
+   
+      final int mask = tableSize - 1;
+   
+      for (int slot = hashOf(bytes) & mask; ; slot = (slot + 1) & mask)
+      {
+      
+         final int entry = this.buffer.getInt(table + slot * Integer.BYTES);
+      
+         if (entry == EMPTY_SLOT)
+         {
+         
+            return SymbolTable.NOT_FOUND;
+         
+         }
+      
+         final int id = entry - 1;
+         final int nameStart = this.buffer.getInt(nameOffsets + id * Integer.BYTES);
+         final int nameEnd = this.buffer.getInt(nameOffsets + (id + 1) * Integer.BYTES);
+      
+         if (nameEnd - nameStart == bytes.length && this.bytesEqual(names + nameStart, bytes))
+         {
+         
+            return id;
+         
+         }
+      
+      }
+   
+   }
+
+   private boolean bytesEqual(final int offset, final byte[] bytes)
+   {
+   
+      for (int index = 0; index < bytes.length; index++)
+      {
+      
+         if (this.buffer.get(offset + index) != bytes[index])
+         {
+         
+            return false;
+         
+         }
+      
+      }
+   
+      return true;
+   
+   }
+
+   private boolean isKnown(final int section, final int id)
+   {
+   
+      final int base = this.sections[section];
+      final int count = this.buffer.getInt(base);
+   
+      if (id < 0 || id >= count)
+      {
+      
+         return false;
+      
+      }
+   
+      final int tableSize = this.buffer.getInt(base + Integer.BYTES);
+      final int known = base + 2 * Integer.BYTES + (count + 1) * Integer.BYTES + tableSize * Integer.BYTES;
+   
+      return (this.buffer.getLong(known + (id >>> 6) * Long.BYTES) & (1L << id)) != 0;
+   
+   }
+
+   private int rowStart(final int base, final int row)
+   {
+   
+      final int rowCount = this.buffer.getInt(base);
+   
+      return this.buffer.getInt(base + Integer.BYTES + Math.min(row, rowCount) * Integer.BYTES);
+   
+   }
+
+   private int target(final int base, final int index)
+   {
+   
+      final int rowCount = this.buffer.getInt(base);
+   
+      return this.buffer.getInt(base + (rowCount + 2) * Integer.BYTES + index * Integer.BYTES);
+   
+   }
+
+   private boolean contains(final int base, final int row, final int target)
+   {
+   
+      return this.indexOf(base, row, target) >= 0;
+   
+   }
+
+   //Where the target is among all the targets of the section, or -1 -- a binary search, since the targets of each row are sorted
+   private int indexOf(final int base, final int row, final int target)
+   {
+   
+      if (row < 0 || row >= this.buffer.getInt(base))
+      {
+      
+         return -1;
+      
+      }
+   
+      int low = this.rowStart(base, row);
+      int high = this.rowStart(base, row + 1) - 1;
+   
+      while (low <= high)
+      {
+      
+         final int middle = (low + high) >>> 1;
+         final int value = this.target(base, middle);
+      
+         if (value < target)
+         {
+         
+            low = middle + 1;
+         
+         }
+      
+         else if (value > target)
+         {
+         
+            high = middle - 1;
+         
+         }
+      
+         else
+         {
+         
+            return middle;
+         
+         }
+      
+      }
+   
+      return -1;
+   
+   }
+
+   private static int knownWords(final int count)
+   {
+   
+      return (count + 63) >>> 6;
+   
+   }
+
+   //FNV-1a over the UTF-8 bytes -- it is part of the file format, so it must never change within a version
+   private static int hashOf(final byte[] bytes)
+   {
+   
+      int hash = 0x811C9DC5;
+   
+      for (final byte next : bytes)
+      {
+      
+         hash = (hash ^ (next & 0xFF)) * 0x01000193;
+      
+      }
+   
+      return SymbolTable.mix(hash);
+   
+   }
+
+   static MappedSnapshot.Writer writer(final Path file) throws IOException
+   {
+   
+      return new MappedSnapshot.Writer(file);
+   
+   }
+
+   //Writes the sections one at a time, in the order of the section constants, into a temporary file that
+   //only replaces the given one on commit
+   static final class Writer implements Closeable
+   {
+   
+      private final Path file;
+      private final Path temporaryFile;
+      private final FileChannel channel;
+   
+      private final long[] offsets = new long[SECTION_COUNT];
+      private int section = 0;
+   
+      private Writer(final Path file) throws IOException
+      {
+      
+         this.file = file;
+         this.temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+         this.channel = FileChannel.open(this.temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      
+         this.channel.position(HEADER_BYTES);
+      
+      }
+   
+      void symbols(final SymbolTable symbols, final KnownSymbols known) throws IOException
+      {
+      
+         final int count = symbols.size();
+      
+         //the hash table alone would pass 2 GB, and doubling the count would overflow
+         if (count > Integer.MAX_VALUE / (4 * Integer.BYTES))
+         {
+         
+            throw new IOException("Snapshots are limited to 2 GB -- " + count + " symbols");
+         
+         }
+      
+         final int tableSize = count == 0 ? 0 : Integer.highestOneBit(count * 2 - 1) << 1;
+      
+         final byte[][] names = new byte[count][];
+         final int[] nameOffsets = new int[count + 1];
+         final int[] table = new int[tableSize];
+         final long[] knownBits = new long[knownWords(count)];
+      
+         for (int id = 0; id < count; id++)
+         {
+         
+            names[id] = symbols.nameOf(id).getBytes(StandardCharsets.UTF_8);
+         
+            if (names[id].length > Integer.MAX_VALUE - nameOffsets[id])
+            {
+            
+               throw new IOException("Snapshots are limited to 2 GB -- the names alone pass it");
+            
+            }
+         
+            nameOffsets[id + 1] = nameOffsets[id] + names[id].length;
+         
+            int slot = hashOf(names[id]) & (tableSize - 1);
+         
+            while (table[slot] != EMPTY_SLOT)
+            {
+            
+               slot = (slot + 1) & (tableSize - 1);
+            
+            }
+         
+            table[slot] = id + 1;
+         
+            if (known.isKnown(id))
+            {
+            
+               knownBits[id >>> 6] |= 1L << id;
+            
+            }
+         
+         }
+      
+         final ByteBuffer output = this.startSection(sectionBytes(2L + count + 1 + tableSize, knownBits.length, nameOffsets[count]));
+      
+         output.putInt(count).putInt(tableSize);
+      
+         for (final int nameOffset : nameOffsets)
+         {
+         
+            output.putInt(nameOffset);
+         
+         }
+      
+         for (final int entry : table)
+         {
+         
+            output.putInt(entry);
+         
+         }
+      
+         for (final long word : knownBits)
+         {
+         
+            output.putLong(word);
+         
+         }
+      
+         for (final byte[] name : names)
+         {
+         
+            output.put(name);
+         
+         }
+      
+         this.endSection(output);
+      
+      }
+   
+      void adjacency(final int rowCount, final IntFunction<int[]> targetsOf) throws IOException
+      {
+      
+         final int[][] rows = new int[rowCount][];
+      
+         long edges = 0;
+      
+         for (int row = 0; row < rowCount; row++)
+         {
+         
+            rows[row] = targetsOf.apply(row).clone();
+         
+            Arrays.sort(rows[row]);
+         
+            edges += rows[row].length;
+         
+         }
+      
+         final ByteBuffer output = this.startSection(sectionBytes(rowCount + 2L + edges, 0, 0));
+      
+         this.putRows(output, rows);
+      
+         this.endSection(output);
+      
+      }
+   
+      void quantities(final int rowCount, final QuantityAdjacency quantities) throws IOException
+      {
+      
+         final int[][] rows = new int[rowCount][];
+         final long[][] counts = new long[rowCount][];
+      
+         long edges = 0;
+      
+         for (int row = 0; row < rowCount; row++)
+         {
+         
+            final IntLongMap entries = new IntLongMap();
+         
+            quantities.forEach(row, entries::put);
+         
+            final int[] types = new int[entries.size()];
+            final int[] index = {0};
+         
+            entries.forEach((type, count) -> types[index[0]++] = type);
+         
+            Arrays.sort(types);
+         
+            rows[row] = types;
+            counts[row] = new long[types.length];
+         
+            for (int column = 0; column < types.length; column++)
+            {
+            
+               counts[row][column] = entries.get(types[column], 0);
+            
+            }
+         
+            edges += types.length;
+         
+         }
+      
+         final ByteBuffer output = this.startSection(sectionBytes(rowCount + 2L + edges, edges, 0));
+      
+         this.putRows(output, rows);
+      
+         for (final long[] row : counts)
+         {
+         
+            for (final long count : row)
+            {
+            
+               output.putLong(count);
+            
+            }
+         
+         }
+      
+         this.endSection(output);
+      
+      }
+   
+      void commit() throws IOException
+      {
+      
+         if (this.section != SECTION_COUNT)
+         {
+         
+            throw new IllegalStateException("Only " + this.section + " of " + SECTION_COUNT + " sections were written");
+         
+         }
+      
+         final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      
+         header.putInt(MAGIC).putInt(VERSION).putInt(SECTION_COUNT);
+      
+         for (final long offset : this.offsets)
+         {
+         
+            header.putLong(offset);
+         
+         }
+      
+         this.channel.write(header.flip(), 0);
+         this.channel.force(true);
+         this.channel.close();
+      
+         Files.move(this.temporaryFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      
+      }
+   
+      @Override
+      public void close() throws IOException
+      {
+      
+         if (this.channel.isOpen())
+         {
+         
+            this.channel.close();
+            Files.deleteIfExists(this.temporaryFile);
+         
+         }
+      
+      }
+   
+      //The size of a section holding the given number of ints, then longs, then raw bytes -- in long, so that a
+      //section too big for the format is rejected rather than wrapping around to a small or negative size
+      private static long sectionBytes(final long ints, final long longs, final long bytes) throws IOException
+      {
+      
+         try
+         {
+         
+            return Math.addExact(Math.addExact(Math.multiplyExact(ints, Integer.BYTES), Math.multiplyExact(longs, Long.BYTES)), bytes);
+         
+         }
+      
+         catch (final ArithmeticException overflow)
+         {
+         
+            throw new IOException("Snapshots are limited to 2 GB", overflow);
+         
+         }
+      
+      }
+   
+      private ByteBuffer startSection(final long bytes) throws IOException
+      {
+      
+         if (bytes > Integer.MAX_VALUE - this.channel.position())
+         {
+         
+            throw new IOException("Snapshots are limited to 2 GB");
+         
+         }
+      
+         this.offsets[this.section++] = this.channel.position();
+      
+         return ByteBuffer.allocate((int) bytes);
+      
+      }
+   
+      private void endSection(final ByteBuffer output) throws IOException
+      {
+      
+         output.flip();
+      
+         while (output.hasRemaining())
+         {
+         
+            this.channel.write(output);
+         
+         }
+      
+      }
+   
+      private void putRows(final ByteBuffer output, final int[][] rows)
+      {
+      
+         output.putInt(rows.length);
+      
+         int offset = 0;
+      
+         output.putInt(offset);
+      
+         for (final int[] row : rows)
+         {
+         
+            offset += row.length;
+         
+            output.putInt(offset);
+         
+         }
+      
+         for (final int[] row : rows)
+         {
+         
+            for (final int target : row)
+            {
+            
+               output.putInt(target);
+            
+            }
+         
+         }
+      
+      }
+   
+   }
+
+}
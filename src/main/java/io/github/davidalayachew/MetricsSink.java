@@ -0,0 +1,13 @@
+
+package io.github.davidalayachew;
+
+//Somewhere to send the metrics of an engine on a schedule -- a log, a time series database, an alerting system.
+//Called from a background thread, so it should hand the snapshot off rather than block.
+
+@FunctionalInterface
+public interface MetricsSink
+{
+
+   void report(EngineMetrics.Snapshot snapshot);
+
+}
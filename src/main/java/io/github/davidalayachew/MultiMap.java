@@ -9,6 +9,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class MultiMap<K, V>
 {
@@ -24,9 +25,40 @@ public class MultiMap<K, V>
 
    private final Map<K, Set<V>> map = new HashMap<>();
 
+   //value -> keys, only maintained when asked for, since it doubles the memory of the map
+   private final Map<V, Set<K>> reverseMap;
+
+   public MultiMap()
+   {
+   
+      this(false);
+   
+   }
+
+   private MultiMap(final boolean indexValues)
+   {
+   
+      this.reverseMap = indexValues ? new HashMap<>() : null;
+   
+   }
+
+   public static <K, V> MultiMap<K, V> withReverseIndex()
+   {
+   
+      return new MultiMap<>(true);
+   
+   }
+
    public MultiMap.PutResponse add(final K key, final V value)
    {
    
+      if (this.reverseMap != null)
+      {
+      
+         this.reverseMap.computeIfAbsent(value, unused -> new HashSet<>()).add(key);
+      
+      }
+   
       final Set<V> previousValue = this.map.merge(key, this.singletonSet(value), this::combineSets);
    
       return
@@ -65,9 +97,55 @@ public class MultiMap<K, V>
    
    }
 
+   public boolean remove(final K key, final V value)
+   {
+   
+      final Set<V> values = this.map.get(key);
+   
+      if (values == null || !values.remove(value))
+      {
+      
+         return false;
+      
+      }
+   
+      if (values.isEmpty())
+      {
+      
+         this.map.remove(key);
+      
+      }
+   
+      if (this.reverseMap != null)
+      {
+      
+         final Set<K> keys = this.reverseMap.get(value);
+      
+         keys.remove(key);
+      
+         if (keys.isEmpty())
+         {
+         
+            this.reverseMap.remove(value);
+         
+         }
+      
+      }
+   
+      return true;
+   
+   }
+
    public boolean containsValue(final V value)
    {
    
+      if (this.reverseMap != null)
+      {
+      
+         return this.reverseMap.containsKey(value);
+      
+      }
+   
       return
          this
             .map
@@ -79,6 +157,52 @@ public class MultiMap<K, V>
    
    }
 
+   public Set<K> keysFor(final V value)
+   {
+   
+      if (this.reverseMap != null)
+      {
+      
+         return Set.copyOf(this.reverseMap.getOrDefault(value, Set.of()));
+      
+      }
+   
+      return
+         this
+            .map
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().contains(value))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toUnmodifiableSet())
+            ;
+   
+   }
+
+   //How many distinct values are mapped to by at least one key
+   public int valueCount()
+   {
+   
+      if (this.reverseMap != null)
+      {
+      
+         return this.reverseMap.size();
+      
+      }
+   
+      return
+         (int)
+            this
+               .map
+               .values()
+               .stream()
+               .flatMap(Set::stream)
+               .distinct()
+               .count()
+               ;
+   
+   }
+
    public boolean containsMapping(final K key, final V value)
    {
    
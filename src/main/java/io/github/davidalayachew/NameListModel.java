@@ -0,0 +1,99 @@
+
+package io.github.davidalayachew;
+
+import java.util.Objects;
+import java.util.function.Function;
+import javax.swing.AbstractListModel;
+
+//A ListModel over SortedNames, narrowed to whatever prefix the filter holds. Nothing is copied -- a row only becomes
+//an element when the JList asks for it, which (with a fixed cell size) is only ever for the rows on screen.
+//Like RingBufferListModel, it is never serialized.
+
+@SuppressWarnings("serial")
+public class NameListModel<E> extends AbstractListModel<E>
+{
+
+   private final Function<String, E> elementOf;
+
+   private SortedNames all = SortedNames.EMPTY;
+   private SortedNames shown = SortedNames.EMPTY;
+   private String prefix = "";
+
+   public NameListModel(final Function<String, E> elementOf)
+   {
+   
+      this.elementOf = Objects.requireNonNull(elementOf);
+   
+   }
+
+   //Called with the latest names from the engine
+   public void setNames(final SortedNames names)
+   {
+   
+      if (names == this.all)
+      {
+      
+         return;
+      
+      }
+   
+      this.all = Objects.requireNonNull(names);
+      this.update();
+   
+   }
+
+   public void setPrefix(final String prefix)
+   {
+   
+      this.prefix = Objects.requireNonNull(prefix);
+      this.update();
+   
+   }
+
+   @Override
+   public int getSize()
+   {
+   
+      return this.shown.size();
+   
+   }
+
+   @Override
+   public E getElementAt(final int index)
+   {
+   
+      return this.elementOf.apply(this.shown.get(index));
+   
+   }
+
+   private void update()
+   {
+   
+      final int oldSize = this.shown.size();
+   
+      this.shown = this.all.withPrefix(this.prefix);
+   
+      if (oldSize > this.shown.size())
+      {
+      
+         this.fireIntervalRemoved(this, this.shown.size(), oldSize - 1);
+      
+      }
+   
+      else if (oldSize < this.shown.size())
+      {
+      
+         this.fireIntervalAdded(this, oldSize, this.shown.size() - 1);
+      
+      }
+   
+      if (this.shown.size() > 0)
+      {
+      
+         this.fireContentsChanged(this, 0, this.shown.size() - 1);
+      
+      }
+   
+   }
+
+}
@@ -0,0 +1,164 @@
+
+package io.github.davidalayachew;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//Does what input.trim().toUpperCase().replaceAll("\\s+", " ") does, but into a buffer that gets reused,
+//so normalizing a line allocates nothing once the buffer is big enough for the longest line.
+//Control characters count as whitespace, since no sentence can contain them anyway.
+//The CharSequence that comes back is only valid until the next call -- one Normalizer per thread.
+
+public final class Normalizer
+{
+
+   private char[] buffer = new char[64];
+
+   private int length = 0;
+
+   private final CharSequence view =
+      new CharSequence()
+      {
+      
+         public int length()
+         {
+         
+            return Normalizer.this.length;
+         
+         }
+      
+         public char charAt(final int index)
+         {
+         
+            if (index < 0 || index >= Normalizer.this.length)
+            {
+            
+               throw new IndexOutOfBoundsException(index);
+            
+            }
+         
+            return Normalizer.this.buffer[index];
+         
+         }
+      
+         public CharSequence subSequence(final int start, final int end)
+         {
+         
+            return new String(Normalizer.this.buffer, start, end - start);
+         
+         }
+      
+         public String toString()
+         {
+         
+            return new String(Normalizer.this.buffer, 0, Normalizer.this.length);
+         
+         }
+      
+      };
+
+   public CharSequence normalize(final CharSequence input)
+   {
+   
+      this.length = 0;
+   
+      for (int index = 0; index < input.length(); index++)
+      {
+      
+         this.append(input.charAt(index));
+      
+      }
+   
+      return this.finish();
+   
+   }
+
+   //Reads the bytes between position and limit as ASCII, without moving the position
+   public CharSequence normalize(final ByteBuffer ascii)
+   {
+   
+      this.length = 0;
+   
+      for (int index = ascii.position(); index < ascii.limit(); index++)
+      {
+      
+         this.append((char) (ascii.get(index) & 0xFF));
+      
+      }
+   
+      return this.finish();
+   
+   }
+
+   private void append(final char character)
+   {
+   
+      if (isWhitespace(character) || character < ' ')
+      {
+      
+         //collapse every run of whitespace into one space, and drop it entirely at the start
+         if (this.length > 0 && this.buffer[this.length - 1] != ' ')
+         {
+         
+            this.push(' ');
+         
+         }
+      
+         return;
+      
+      }
+   
+      this.push(
+         character >= 'a' && character <= 'z'
+            ?  (char) (character - ('a' - 'A'))
+            :  character < 0x80
+            ?  character
+            :  Character.toUpperCase(character)
+         );
+   
+   }
+
+   private CharSequence finish()
+   {
+   
+      //drop the space that a trailing run of whitespace left behind
+      if (this.length > 0 && this.buffer[this.length - 1] == ' ')
+      {
+      
+         this.length--;
+      
+      }
+   
+      return this.view;
+   
+   }
+
+   private void push(final char character)
+   {
+   
+      if (this.length == this.buffer.length)
+      {
+      
+         this.buffer = Arrays.copyOf(this.buffer, this.length * 2);
+      
+      }
+   
+      this.buffer[this.length++] = character;
+   
+   }
+
+   private static boolean isWhitespace(final char character)
+   {
+   
+      return
+         switch (character)
+         {
+         
+            case ' ', '\t', '\n', '\u000B', '\f', '\r' -> true;
+            default -> false;
+         
+         };
+   
+   }
+
+}
@@ -13,5 +13,8 @@ public sealed interface Parseable
             FrequencyTypeHasQuantityType,
             FrequencyTypeIsType,
             FrequencyTypeRelationship,
-            IsIdentifierAType
+            IsIdentifierAType,
+            WhatIsIdentifier,
+            WhoIsAType,
+            HowManyTypeDoesIdentifierHave
 {}
@@ -0,0 +1,449 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+//An immutable hash map, stored as a hash array mapped trie (HAMT) -- each level of the trie uses the next 5 bits of the hash.
+//Adding or removing a key copies only the nodes on the path down to it, and shares everything else with the map it came from,
+//so keeping every old version of a map around only costs memory for what changed between them.
+
+public final class PersistentMap<K, V>
+{
+
+   private static final int BITS_PER_LEVEL = 5;
+   private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+   private sealed interface Node {}
+
+   private record Entry(int hash, Object key, Object value) {}
+
+   //one slot per set bit of the bitmap, in bit order -- each slot is either an Entry or a Node one level down
+   private record BitmapNode(int bitmap, Object[] slots) implements Node {}
+
+   //keys whose whole 32 bit hashes are equal, once there are no more bits left to tell them apart
+   private record CollisionNode(int hash, Entry[] entries) implements Node {}
+
+   private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(new BitmapNode(0, new Object[0]), 0);
+
+   private final BitmapNode root;
+   private final int size;
+
+   private PersistentMap(final BitmapNode root, final int size)
+   {
+   
+      this.root = root;
+      this.size = size;
+   
+   }
+
+   @SuppressWarnings("unchecked")
+   public static <K, V> PersistentMap<K, V> empty()
+   {
+   
+      return (PersistentMap<K, V>) EMPTY;
+   
+   }
+
+   public V get(final K key)
+   {
+   
+      return this.getOrDefault(key, null);
+   
+   }
+
+   @SuppressWarnings("unchecked")
+   public V getOrDefault(final K key, final V defaultValue)
+   {
+   
+      final Entry entry = find(this.root, hashOf(key), key, 0);
+   
+      return entry == null ? defaultValue : (V) entry.value();
+   
+   }
+
+   public boolean containsKey(final K key)
+   {
+   
+      return find(this.root, hashOf(key), key, 0) != null;
+   
+   }
+
+   //this same map if the key already has an equal value
+   public PersistentMap<K, V> plus(final K key, final V value)
+   {
+   
+      Objects.requireNonNull(key);
+   
+      final Entry entry = new Entry(hashOf(key), key, value);
+   
+      final BitmapNode root = (BitmapNode) plus(this.root, entry, 0);
+   
+      return
+         root == this.root
+            ?  this
+            :  new PersistentMap<>(root, this.containsKey(key) ? this.size : this.size + 1)
+            ;
+   
+   }
+
+   //this same map if the key was not in it
+   public PersistentMap<K, V> minus(final K key)
+   {
+   
+      if (!this.containsKey(key))
+      {
+      
+         return this;
+      
+      }
+   
+      final Node root = minus(this.root, hashOf(key), key, 0);
+   
+      return
+         root == null
+            ?  PersistentMap.empty()
+            :  new PersistentMap<>((BitmapNode) root, this.size - 1)
+            ;
+   
+   }
+
+   public int size()
+   {
+   
+      return this.size;
+   
+   }
+
+   public boolean isEmpty()
+   {
+   
+      return this.size == 0;
+   
+   }
+
+   @SuppressWarnings("unchecked")
+   public void forEach(final BiConsumer<? super K, ? super V> action)
+   {
+   
+      forEach(this.root, entry -> action.accept((K) entry.key(), (V) entry.value()));
+   
+   }
+
+   private static int hashOf(final Object key)
+   {
+   
+      return SymbolTable.mix(key.hashCode());
+   
+   }
+
+   private static int bitOf(final int hash, final int shift)
+   {
+   
+      return 1 << ((hash >>> shift) & LEVEL_MASK);
+   
+   }
+
+   private static int indexOf(final int bitmap, final int bit)
+   {
+   
+      return Integer.bitCount(bitmap & (bit - 1));
+   
+   }
+
+   private static Entry find(final Node node, final int hash, final Object key, final int shift)
+   {
+   
+      return
+         switch (node)
+         {
+         
+            case BitmapNode(int bitmap, Object[] slots) ->
+            {
+            
+               final int bit = bitOf(hash, shift);
+            
+               if ((bitmap & bit) == 0)
+               {
+               
+                  yield null;
+               
+               }
+            
+               yield
+                  switch (slots[indexOf(bitmap, bit)])
+                  {
+                  
+                     case Entry entry  -> entry.hash() == hash && entry.key().equals(key) ? entry : null;
+                     case Node child   -> find(child, hash, key, shift + BITS_PER_LEVEL);
+                     default           -> throw new IllegalStateException();
+                  
+                  };
+            
+            }
+         
+            case CollisionNode(int collisionHash, Entry[] entries) ->
+            {
+            
+               for (final Entry entry : entries)
+               {
+               
+                  if (entry.key().equals(key))
+                  {
+                  
+                     yield entry;
+                  
+                  }
+               
+               }
+            
+               yield null;
+            
+            }
+         
+         };
+   
+   }
+
+   private static Node plus(final Node node, final Entry entry, final int shift)
+   {
+   
+      return
+         switch (node)
+         {
+         
+            case BitmapNode(int bitmap, Object[] slots) ->
+            {
+            
+               final int bit = bitOf(entry.hash(), shift);
+               final int index = indexOf(bitmap, bit);
+            
+               if ((bitmap & bit) == 0)
+               {
+               
+                  final Object[] newSlots = new Object[slots.length + 1];
+               
+                  System.arraycopy(slots, 0, newSlots, 0, index);
+                  newSlots[index] = entry;
+                  System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+               
+                  yield new BitmapNode(bitmap | bit, newSlots);
+               
+               }
+            
+               final Object newSlot =
+                  switch (slots[index])
+                  {
+                  
+                     case Entry existing when existing.hash() == entry.hash() && existing.key().equals(entry.key()) ->
+                        Objects.equals(existing.value(), entry.value()) ? existing : entry;
+                  
+                     case Entry existing  -> merge(existing, entry, shift + BITS_PER_LEVEL);
+                     case Node child      -> plus(child, entry, shift + BITS_PER_LEVEL);
+                     default              -> throw new IllegalStateException();
+                  
+                  };
+            
+               yield newSlot == slots[index] ? node : new BitmapNode(bitmap, with(slots, index, newSlot));
+            
+            }
+         
+            case CollisionNode(int hash, Entry[] entries) ->
+            {
+            
+               for (int index = 0; index < entries.length; index++)
+               {
+               
+                  if (entries[index].key().equals(entry.key()))
+                  {
+                  
+                     yield
+                        Objects.equals(entries[index].value(), entry.value())
+                           ?  node
+                           :  new CollisionNode(hash, (Entry[]) with(entries, index, entry))
+                           ;
+                  
+                  }
+               
+               }
+            
+               final Entry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+            
+               newEntries[entries.length] = entry;
+            
+               yield new CollisionNode(hash, newEntries);
+            
+            }
+         
+         };
+   
+   }
+
+   //A node holding two entries that landed in the same slot of the level above
+   private static Node merge(final Entry left, final Entry right, final int shift)
+   {
+   
+      if (shift >= Integer.SIZE)
+      {
+      
+         return new CollisionNode(left.hash(), new Entry[] {left, right});
+      
+      }
+   
+      final int leftBit = bitOf(left.hash(), shift);
+      final int rightBit = bitOf(right.hash(), shift);
+   
+      return
+         leftBit == rightBit
+            ?  new BitmapNode(leftBit, new Object[] {merge(left, right, shift + BITS_PER_LEVEL)})
+            :  new BitmapNode(leftBit | rightBit, Integer.compareUnsigned(leftBit, rightBit) < 0 ? new Object[] {left, right} : new Object[] {right, left})
+            ;
+   
+   }
+
+   //null once the node is empty -- the caller has already checked that the key is in there somewhere
+   private static Node minus(final Node node, final int hash, final Object key, final int shift)
+   {
+   
+      return
+         switch (node)
+         {
+         
+            case BitmapNode(int bitmap, Object[] slots) ->
+            {
+            
+               final int bit = bitOf(hash, shift);
+               final int index = indexOf(bitmap, bit);
+            
+               final Object newSlot =
+                  switch (slots[index])
+                  {
+                  
+                     case Entry entry  -> null;
+                     case Node child   -> inline(minus(child, hash, key, shift + BITS_PER_LEVEL));
+                     default           -> throw new IllegalStateException();
+                  
+                  };
+            
+               if (newSlot != null)
+               {
+               
+                  yield new BitmapNode(bitmap, with(slots, index, newSlot));
+               
+               }
+            
+               if (slots.length == 1)
+               {
+               
+                  yield null;
+               
+               }
+            
+               final Object[] newSlots = new Object[slots.length - 1];
+            
+               System.arraycopy(slots, 0, newSlots, 0, index);
+               System.arraycopy(slots, index + 1, newSlots, index, slots.length - index - 1);
+            
+               yield new BitmapNode(bitmap & ~bit, newSlots);
+            
+            }
+         
+            case CollisionNode(int collisionHash, Entry[] entries) ->
+            {
+            
+               final Entry[] newEntries = new Entry[entries.length - 1];
+            
+               int count = 0;
+            
+               for (final Entry entry : entries)
+               {
+               
+                  if (!entry.key().equals(key))
+                  {
+                  
+                     newEntries[count++] = entry;
+                  
+                  }
+               
+               }
+            
+               yield new CollisionNode(collisionHash, newEntries);
+            
+            }
+         
+         };
+   
+   }
+
+   //A child left with a single entry and nothing below it is replaced by that entry, so the trie stays as shallow as it can be
+   private static Object inline(final Node child)
+   {
+   
+      return
+         switch (child)
+         {
+         
+            case null -> null;
+            case BitmapNode(int bitmap, Object[] slots) when slots.length == 1 && slots[0] instanceof Entry entry -> entry;
+            case CollisionNode(int hash, Entry[] entries) when entries.length == 1 -> entries[0];
+            default -> child;
+         
+         };
+   
+   }
+
+   private static Object[] with(final Object[] slots, final int index, final Object slot)
+   {
+   
+      final Object[] copy = slots.clone();
+   
+      copy[index] = slot;
+   
+      return copy;
+   
+   }
+
+   private static void forEach(final Node node, final Consumer<Entry> action)
+   {
+   
+      switch (node)
+      {
+      
+         case BitmapNode(int bitmap, Object[] slots) ->
+         {
+         
+            for (final Object slot : slots)
+            {
+            
+               switch (slot)
+               {
+               
+                  case Entry entry  -> action.accept(entry);
+                  case Node child   -> forEach(child, action);
+                  default           -> throw new IllegalStateException();
+               
+               }
+            
+            }
+         
+         }
+      
+         case CollisionNode(int hash, Entry[] entries) ->
+         {
+         
+            for (final Entry entry : entries)
+            {
+            
+               action.accept(entry);
+            
+            }
+         
+         }
+      
+      }
+   
+   }
+
+}
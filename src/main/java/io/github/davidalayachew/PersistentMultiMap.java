@@ -0,0 +1,95 @@
+
+package io.github.davidalayachew;
+
+import java.util.function.BiConsumer;
+
+//The immutable counterpart of MultiMap -- every key maps to a PersistentSet of values, and a change returns a new multimap
+//that shares everything it did not touch with the old one.
+
+public final class PersistentMultiMap<K, V>
+{
+
+   private static final PersistentMultiMap<?, ?> EMPTY = new PersistentMultiMap<>(PersistentMap.empty());
+
+   private final PersistentMap<K, PersistentSet<V>> map;
+
+   private PersistentMultiMap(final PersistentMap<K, PersistentSet<V>> map)
+   {
+   
+      this.map = map;
+   
+   }
+
+   @SuppressWarnings("unchecked")
+   public static <K, V> PersistentMultiMap<K, V> empty()
+   {
+   
+      return (PersistentMultiMap<K, V>) EMPTY;
+   
+   }
+
+   public PersistentSet<V> get(final K key)
+   {
+   
+      return this.map.getOrDefault(key, PersistentSet.empty());
+   
+   }
+
+   public boolean containsKey(final K key)
+   {
+   
+      return this.map.containsKey(key);
+   
+   }
+
+   public boolean containsMapping(final K key, final V value)
+   {
+   
+      return this.get(key).contains(value);
+   
+   }
+
+   //this same multimap if the mapping was already in it
+   public PersistentMultiMap<K, V> plus(final K key, final V value)
+   {
+   
+      final PersistentSet<V> values = this.get(key);
+      final PersistentSet<V> newValues = values.plus(value);
+   
+      return values == newValues ? this : new PersistentMultiMap<>(this.map.plus(key, newValues));
+   
+   }
+
+   //this same multimap if the mapping was not in it
+   public PersistentMultiMap<K, V> minus(final K key, final V value)
+   {
+   
+      final PersistentSet<V> values = this.get(key);
+      final PersistentSet<V> newValues = values.minus(value);
+   
+      return
+         values == newValues
+            ?  this
+            :  newValues.isEmpty()
+            ?  new PersistentMultiMap<>(this.map.minus(key))
+            :  new PersistentMultiMap<>(this.map.plus(key, newValues))
+            ;
+   
+   }
+
+   //How many keys have at least one value
+   public int size()
+   {
+   
+      return this.map.size();
+   
+   }
+
+   public void forEach(final BiConsumer<? super K, ? super PersistentSet<V>> action)
+   {
+   
+      this.map.forEach(action);
+   
+   }
+
+}
@@ -0,0 +1,117 @@
+
+package io.github.davidalayachew;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+//An immutable set, sharing structure with the sets it was made from -- just a PersistentMap with no values.
+
+public final class PersistentSet<E>
+{
+
+   private static final PersistentSet<?> EMPTY = new PersistentSet<>(PersistentMap.empty());
+
+   private final PersistentMap<E, Boolean> map;
+
+   private PersistentSet(final PersistentMap<E, Boolean> map)
+   {
+   
+      this.map = map;
+   
+   }
+
+   @SuppressWarnings("unchecked")
+   public static <E> PersistentSet<E> empty()
+   {
+   
+      return (PersistentSet<E>) EMPTY;
+   
+   }
+
+   public boolean contains(final E element)
+   {
+   
+      return this.map.containsKey(element);
+   
+   }
+
+   //this same set if the element was already in it
+   public PersistentSet<E> plus(final E element)
+   {
+   
+      final PersistentMap<E, Boolean> map = this.map.plus(element, Boolean.TRUE);
+   
+      return map == this.map ? this : new PersistentSet<>(map);
+   
+   }
+
+   //this same set if the element was not in it
+   public PersistentSet<E> minus(final E element)
+   {
+   
+      final PersistentMap<E, Boolean> map = this.map.minus(element);
+   
+      return
+         map == this.map
+            ?  this
+            :  map.isEmpty()
+            ?  PersistentSet.empty()
+            :  new PersistentSet<>(map)
+            ;
+   
+   }
+
+   public int size()
+   {
+   
+      return this.map.size();
+   
+   }
+
+   public boolean isEmpty()
+   {
+   
+      return this.map.isEmpty();
+   
+   }
+
+   public void forEach(final Consumer<? super E> action)
+   {
+   
+      this.map.forEach((element, unused) -> action.accept(element));
+   
+   }
+
+   public boolean anyMatch(final Predicate<? super E> predicate)
+   {
+   
+      for (final E element : this.toList())
+      {
+      
+         if (predicate.test(element))
+         {
+         
+            return true;
+         
+         }
+      
+      }
+   
+      return false;
+   
+   }
+
+   public List<E> toList()
+   {
+   
+      final List<E> output = new ArrayList<>(this.size());
+   
+      this.forEach(output::add);
+   
+      return output;
+   
+   }
+
+}
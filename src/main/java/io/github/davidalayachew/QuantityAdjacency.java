@@ -0,0 +1,69 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+
+//HAS relationships between dense ids -- for each source id, the count of each type it has.
+//Saying the same source has a new count of a type it already has replaces the old count.
+
+public class QuantityAdjacency
+{
+
+   private IntLongMap[] rows = new IntLongMap[16];
+
+   //true if the source did not have the type before
+   public boolean put(final int from, final int type, final long count)
+   {
+   
+      if (from >= this.rows.length)
+      {
+      
+         this.rows = Arrays.copyOf(this.rows, Math.max(from + 1, this.rows.length * 2));
+      
+      }
+   
+      if (this.rows[from] == null)
+      {
+      
+         this.rows[from] = new IntLongMap();
+      
+      }
+   
+      return this.rows[from].put(type, count);
+   
+   }
+
+   public boolean containsKey(final int from)
+   {
+   
+      return this.row(from) != null;
+   
+   }
+
+   public long get(final int from, final int type, final long defaultValue)
+   {
+   
+      return this.row(from) instanceof IntLongMap row ? row.get(type, defaultValue) : defaultValue;
+   
+   }
+
+   public void forEach(final int from, final IntLongMap.EntryConsumer action)
+   {
+   
+      if (this.row(from) instanceof IntLongMap row)
+      {
+      
+         row.forEach(action);
+      
+      }
+   
+   }
+
+   private IntLongMap row(final int from)
+   {
+   
+      return from >= 0 && from < this.rows.length ? this.rows[from] : null;
+   
+   }
+
+}
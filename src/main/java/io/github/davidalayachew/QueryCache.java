@@ -0,0 +1,76 @@
+
+package io.github.davidalayachew;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//A fixed number of answers to IS questions, each remembered along with the generation of the engine it was answered at.
+//Moving the engine to a new generation forgets every answer at once without touching a single entry -- they just stop matching.
+//Each question has exactly one slot, so a new answer simply replaces whatever was there.
+
+public final class QueryCache
+{
+
+   private record Entry(String identifier, String type, long generation, Response response) {}
+
+   private final AtomicReferenceArray<Entry> entries;
+
+   public QueryCache(final int capacity)
+   {
+   
+      if (capacity <= 0 || capacity > 1 << 30)
+      {
+      
+         throw new IllegalArgumentException("Capacity must be between 1 and 2^30 -- " + capacity);
+      
+      }
+   
+      //rounded up to a power of two, so a slot is just a mask
+      this.entries = new AtomicReferenceArray<>(capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1);
+   
+   }
+
+   //null if the question was not answered at this generation
+   public Response get(final IsIdentifierAType isQuery, final long generation)
+   {
+   
+      final String identifier = isQuery.identifier().name();
+      final String type = isQuery.type().name();
+   
+      final Entry entry = this.entries.get(this.slotOf(identifier, type));
+   
+      return
+         entry != null
+         && entry.generation() == generation
+         && entry.identifier().equals(identifier)
+         && entry.type().equals(type)
+            ?  entry.response()
+            :  null
+            ;
+   
+   }
+
+   public void put(final IsIdentifierAType isQuery, final long generation, final Response response)
+   {
+   
+      final String identifier = isQuery.identifier().name();
+      final String type = isQuery.type().name();
+   
+      this.entries.set(this.slotOf(identifier, type), new Entry(identifier, type, generation, response));
+   
+   }
+
+   public int capacity()
+   {
+   
+      return this.entries.length();
+   
+   }
+
+   private int slotOf(final String identifier, final String type)
+   {
+   
+      return SymbolTable.mix(identifier.hashCode() * 31 + type.hashCode()) & (this.entries.length() - 1);
+   
+   }
+
+}
@@ -0,0 +1,193 @@
+
+package io.github.davidalayachew;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Serves a HeadlessRulesEngine over plain TCP, one line at a time -- each line a sentence, exactly as it would be typed into
+//the Swing field, and each answer the name of a Response on a line of its own, in the same order.
+//A WHAT or WHO question gets the names that answer it on the same line, after the Response, separated by spaces.
+//A client may send as many lines as it likes before reading any answers. They are only flushed once the client stops
+//sending, so a pipelining client gets its answers in a handful of writes instead of one per line.
+//Every connection gets its own virtual thread, so thousands of idle clients cost next to nothing.
+
+public final class QueryServer implements Closeable
+{
+
+   private final HeadlessRulesEngine engine;
+   private final ServerSocket serverSocket;
+
+   private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+   private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+   //Only listens on the loopback address -- this is for running and load testing locally, not for the open internet
+   public QueryServer(final HeadlessRulesEngine engine, final int port) throws IOException
+   {
+   
+      this.engine = Objects.requireNonNull(engine);
+      this.serverSocket = new ServerSocket();
+   
+      this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+   
+   }
+
+   //The port actually listened on -- worth asking for when the server was made with port 0
+   public int port()
+   {
+   
+      return this.serverSocket.getLocalPort();
+   
+   }
+
+   //Accepts connections until the server is closed
+   public void serve() throws IOException
+   {
+   
+      while (!this.serverSocket.isClosed())
+      {
+      
+         final Socket socket;
+      
+         try
+         {
+         
+            socket = this.serverSocket.accept();
+         
+         }
+      
+         catch (final SocketException exception)
+         {
+         
+            if (this.serverSocket.isClosed())
+            {
+            
+               return;
+            
+            }
+         
+            throw exception;
+         
+         }
+      
+         this.openSockets.add(socket);
+         this.connections.submit(() -> this.handle(socket));
+      
+      }
+   
+   }
+
+   //serve, but on a thread of its own
+   public Thread start()
+   {
+   
+      return
+         Thread
+            .ofPlatform()
+            .name("QueryServer " + this.port())
+            .daemon()
+            .start
+            (
+               () ->
+               {
+               
+                  try
+                  {
+                  
+                     this.serve();
+                  
+                  }
+               
+                  catch (final IOException exception)
+                  {
+                  
+                     throw new UncheckedIOException(exception);
+                  
+                  }
+               
+               }
+            );
+   
+   }
+
+   private void handle(final Socket socket)
+   {
+   
+      try
+      (
+         socket;
+         final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+      )
+      {
+      
+         String line;
+      
+         while ((line = reader.readLine()) != null)
+         {
+         
+            writer.write(this.engine.answer(line));
+            writer.newLine();
+         
+            //nothing more already sent, so the client is probably waiting on us
+            if (!reader.ready())
+            {
+            
+               writer.flush();
+            
+            }
+         
+         }
+      
+      }
+   
+      catch (final IOException exception)
+      {
+      
+         //The client went away mid conversation -- nothing to do but let the connection go
+      
+      }
+   
+      finally
+      {
+      
+         this.openSockets.remove(socket);
+      
+      }
+   
+   }
+
+   //Stops accepting, and drops every open connection
+   @Override
+   public void close() throws IOException
+   {
+   
+      this.serverSocket.close();
+   
+      for (final Socket socket : this.openSockets)
+      {
+      
+         socket.close();
+      
+      }
+   
+      this.connections.shutdown();
+   
+   }
+
+}
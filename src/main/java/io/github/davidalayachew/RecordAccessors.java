@@ -0,0 +1,70 @@
+
+package io.github.davidalayachew;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+
+//The accessor of every component of a record class, looked up once per class and then reused.
+//Used by ToString, which cannot hold any private state of its own, being an interface.
+
+final class RecordAccessors
+{
+
+   private RecordAccessors() {throw new UnsupportedOperationException();}
+
+   private static final MethodHandle[] NOT_A_RECORD = new MethodHandle[0];
+
+   private static final MethodType OBJECT_TO_OBJECT = MethodType.methodType(Object.class, Object.class);
+
+   private static final ClassValue<MethodHandle[]> ACCESSORS =
+      new ClassValue<>()
+      {
+      
+         protected MethodHandle[] computeValue(final Class<?> type)
+         {
+         
+            if (!type.isRecord())
+            {
+            
+               return NOT_A_RECORD;
+            
+            }
+         
+            final RecordComponent[] components = type.getRecordComponents();
+            final MethodHandle[] accessors = new MethodHandle[components.length];
+         
+            try
+            {
+            
+               for (int i = 0; i < components.length; i++)
+               {
+               
+                  accessors[i] = MethodHandles.lookup().unreflect(components[i].getAccessor()).asType(OBJECT_TO_OBJECT);
+               
+               }
+            
+            }
+         
+            catch (IllegalAccessException exception)
+            {
+            
+               throw new IllegalArgumentException(exception);
+            
+            }
+         
+            return accessors;
+         
+         }
+      
+      };
+
+   static MethodHandle[] of(final Class<?> type)
+   {
+   
+      return ACCESSORS.get(type);
+   
+   }
+
+}
@@ -11,7 +11,9 @@ public enum Response
    INCORRECT,
    UNKNOWN_IDENTIFIER,
    UNKNOWN_TYPE,
-   FALL_THROUGH
+   FALL_THROUGH,
+   INVALID_FORMAT,
+   READ_ONLY, //a fact, given to something that only answers questions
    ;
 
 }
@@ -0,0 +1,238 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+//Forward chaining over dense ids, in the style of a Rete network -- every fact a rule can derive is derived when the
+//fact or rule that causes it arrives, so a question is a lookup instead of a walk over the hierarchy.
+//The alpha memories hold every type each identifier is (given or derived), every count it was given, and every HAS rule
+//that reaches it, kept in a HasRollup so it picks between them exactly like the engine does. The join nodes are the
+//EVERY rules, keyed by the type they match on. A new fact or rule only sends its own delta through the joins, and a
+//derived fact that was already known stops there, so inserting costs in proportion to what actually changes.
+//The price is memory -- an identifier is stored once for each type it ends up being, not just the ones it was given.
+//Not thread safe -- the owner does the locking.
+
+public class ReteNetwork
+{
+
+   //no count at all -- HAS counts are never negative
+   public static final long NO_COUNT = HasRollup.NO_COUNT;
+
+   private final TypeHierarchy typeHierarchy;
+
+   //alpha memories
+   private final IntAdjacency       identifierTypes  = new IntAdjacency();       //identifier -> types, derived included
+   private final IntAdjacency       typeMembers      = new IntAdjacency();       //type       -> identifiers, derived included
+   private final QuantityAdjacency  givenCounts      = new QuantityAdjacency();  //identifier -> type, count
+   private HasRollup[]              rollups          = new HasRollup[16];        //identifier -> the HAS rules of every type it is
+
+   //join nodes
+   private final IntAdjacency       isJoins          = new IntAdjacency();       //type       -> types
+   private final QuantityAdjacency  hasJoins         = new QuantityAdjacency();  //type       -> type, count
+
+   private long derivedCount = 0;
+
+   //The hierarchy only decides which of two HAS rules is the more specific -- the owner adds to it before telling the network
+   public ReteNetwork(final TypeHierarchy typeHierarchy)
+   {
+   
+      this.typeHierarchy = typeHierarchy;
+   
+   }
+
+   public void addIsFact(final int identifier, final int type)
+   {
+   
+      this.activate(identifier, type, true);
+   
+   }
+
+   public void addIsRule(final int subType, final int superType)
+   {
+   
+      if (this.isJoins.add(subType, superType))
+      {
+      
+         for (final int identifier : this.typeMembers.toArray(subType))
+         {
+         
+            this.activate(identifier, superType, false);
+         
+            //rules that reached the identifier before may now be more specific than one another
+            if (this.rollupOf(identifier) instanceof HasRollup rollup)
+            {
+            
+               rollup.prune();
+            
+            }
+         
+         }
+      
+      }
+   
+   }
+
+   public void putHasFact(final int identifier, final int type, final long count)
+   {
+   
+      this.givenCounts.put(identifier, type, count);
+   
+   }
+
+   public void putHasRule(final int subType, final int type, final long count)
+   {
+   
+      final long previous = this.hasJoins.get(subType, type, NO_COUNT);
+   
+      if (previous == count)
+      {
+      
+         return;
+      
+      }
+   
+      this.hasJoins.put(subType, type, count);
+   
+      //offering a rule again replaces its old count, wherever a more specific rule has not already dropped it
+      for (final int identifier : this.typeMembers.toArray(subType))
+      {
+      
+         this.derive(identifier, type, count, subType);
+      
+      }
+   
+   }
+
+   public boolean isA(final int identifier, final int type)
+   {
+   
+      return this.identifierTypes.contains(identifier, type);
+   
+   }
+
+   //What the identifier was given wins, the same as in the engine
+   public long count(final int identifier, final int type)
+   {
+   
+      final long given = this.givenCounts.get(identifier, type, NO_COUNT);
+   
+      return
+         given != NO_COUNT || !(this.rollupOf(identifier) instanceof HasRollup rollup)
+            ?  given
+            :  rollup.count(type)
+            ;
+   
+   }
+
+   public void forEachType(final int identifier, final IntConsumer action)
+   {
+   
+      this.identifierTypes.forEach(identifier, action);
+   
+   }
+
+   public void forEachMember(final int type, final IntConsumer action)
+   {
+   
+      this.typeMembers.forEach(type, action);
+   
+   }
+
+   //the number of facts the network worked out itself -- types an identifier was not given, and quantities a HAS rule
+   //reaches it for, even where a count it was given wins over the rule
+   public long derivedCount()
+   {
+   
+      return this.derivedCount;
+   
+   }
+
+   //The identifier is now the type -- and so, through the joins, every type the type is
+   private void activate(final int identifier, final int type, final boolean given)
+   {
+   
+      int[] pending = {type};
+      int size = 1;
+   
+      while (size > 0)
+      {
+      
+         final int each = pending[--size];
+      
+         ALREADY_KNOWN:
+         if (!this.identifierTypes.add(identifier, each))
+         {
+         
+            continue;
+         
+         }
+      
+         this.typeMembers.add(each, identifier);
+      
+         if (!given || each != type)
+         {
+         
+            this.derivedCount++;
+         
+         }
+      
+         this.hasJoins.forEach(each, (ruleType, count) -> this.derive(identifier, ruleType, count, each));
+      
+         for (final int superType : this.isJoins.toArray(each))
+         {
+         
+            if (!this.identifierTypes.contains(identifier, superType))
+            {
+            
+               if (size == pending.length)
+               {
+               
+                  pending = Arrays.copyOf(pending, size * 2);
+               
+               }
+            
+               pending[size++] = superType;
+            
+            }
+         
+         }
+      
+      }
+   
+   }
+
+   private void derive(final int identifier, final int type, final long count, final int source)
+   {
+   
+      if (identifier >= this.rollups.length)
+      {
+      
+         this.rollups = Arrays.copyOf(this.rollups, Math.max(identifier + 1, this.rollups.length * 2));
+      
+      }
+   
+      if (this.rollups[identifier] == null)
+      {
+      
+         this.rollups[identifier] = new HasRollup(this.typeHierarchy::isA);
+      
+      }
+   
+      if (this.rollups[identifier].offer(type, source, count))
+      {
+      
+         this.derivedCount++;
+      
+      }
+   
+   }
+
+   private HasRollup rollupOf(final int identifier)
+   {
+   
+      return identifier >= 0 && identifier < this.rollups.length ? this.rollups[identifier] : null;
+   
+   }
+
+}
@@ -0,0 +1,140 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.AbstractListModel;
+
+//A ListModel holding at most a fixed number of elements, newest first. Once it is full, every new element pushes the
+//oldest one out, so adding is O(1) no matter how long the session runs, and a JList only ever paints the rows it shows.
+//It is never serialized, even though AbstractListModel is Serializable.
+
+@SuppressWarnings("serial")
+public class RingBufferListModel<E> extends AbstractListModel<E>
+{
+
+   private final Object[] elements;
+
+   private int oldest = 0;
+   private int size = 0;
+
+   public RingBufferListModel(final int capacity)
+   {
+   
+      if (capacity <= 0)
+      {
+      
+         throw new IllegalArgumentException("Capacity must be positive -- " + capacity);
+      
+      }
+   
+      this.elements = new Object[capacity];
+   
+   }
+
+   public void add(final E element)
+   {
+   
+      this.addAll(List.of(element));
+   
+   }
+
+   //Adds them in order, so the last one ends up first -- with one event for what fell off the end, and one for what was added
+   public void addAll(final List<? extends E> newElements)
+   {
+   
+      final int capacity = this.elements.length;
+   
+      //only the newest that fit are worth adding at all
+      final List<? extends E> kept = newElements.subList(Math.max(0, newElements.size() - capacity), newElements.size());
+   
+      if (kept.isEmpty())
+      {
+      
+         return;
+      
+      }
+   
+      final int overflow = Math.max(0, this.size + kept.size() - capacity);
+   
+      if (overflow > 0)
+      {
+      
+         for (int index = 0; index < overflow; index++)
+         {
+         
+            this.elements[(this.oldest + index) % capacity] = null;
+         
+         }
+      
+         this.oldest = (this.oldest + overflow) % capacity;
+         this.size -= overflow;
+      
+         this.fireIntervalRemoved(this, this.size, this.size + overflow - 1);
+      
+      }
+   
+      for (final E element : kept)
+      {
+      
+         this.elements[(this.oldest + this.size) % capacity] = element;
+         this.size++;
+      
+      }
+   
+      this.fireIntervalAdded(this, 0, kept.size() - 1);
+   
+   }
+
+   public void clear()
+   {
+   
+      if (this.size == 0)
+      {
+      
+         return;
+      
+      }
+   
+      final int oldSize = this.size;
+   
+      Arrays.fill(this.elements, null);
+      this.oldest = 0;
+      this.size = 0;
+   
+      this.fireIntervalRemoved(this, 0, oldSize - 1);
+   
+   }
+
+   public int capacity()
+   {
+   
+      return this.elements.length;
+   
+   }
+
+   @Override
+   public int getSize()
+   {
+   
+      return this.size;
+   
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public E getElementAt(final int index)
+   {
+   
+      if (index < 0 || index >= this.size)
+      {
+      
+         throw new IndexOutOfBoundsException(index);
+      
+      }
+   
+      return (E) this.elements[(this.oldest + this.size - 1 - index) % this.elements.length];
+   
+   }
+
+}
@@ -1,13 +1,16 @@
 
 package io.github.davidalayachew;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
 
 public class RulesEngine_Attempt2
 {
@@ -21,120 +24,302 @@ public class RulesEngine_Attempt2
    
    }
 
-   private final MultiMap<Identifier,     Type>          isInstances    = new MultiMap<>();
-   private final MultiMap<FrequencyType,  Type>          isRules        = new MultiMap<>();
-   private final MultiMap<Identifier,     QuantityType>  hasInstances   = new MultiMap<>();
-   private final MultiMap<FrequencyType,  QuantityType>  hasRules       = new MultiMap<>();
-
-   public RulesEngine_Attempt2.PutResponse put(final IdentifierIsAType identifierIsAType)
+   //Everything the engine knew as of one version. Every put that changes anything publishes a new Snapshot,
+   //sharing whatever it did not change with the last one -- so a Snapshot can be queried for as long as needed,
+   //from any thread, while newer versions keep coming in.
+   public record Snapshot
+   (
+      long                                            version,
+      PersistentMultiMap<Identifier,     Type>          isInstances,
+      PersistentMultiMap<FrequencyType,  Type>          isRules,
+      PersistentMultiMap<Identifier,     QuantityType>  hasInstances,
+      PersistentMultiMap<FrequencyType,  QuantityType>  hasRules,
+      PersistentMultiMap<Type,           Type>          typeAncestors,    //transitive closure of every EVERY X IS Y rule
+      PersistentMultiMap<Type,           Type>          typeDescendants   //the same closure, the other way around
+   )
    {
    
-      Objects.requireNonNull(identifierIsAType);
+      private static final Snapshot EMPTY =
+         new Snapshot
+         (
+            0,
+            PersistentMultiMap.empty(),
+            PersistentMultiMap.empty(),
+            PersistentMultiMap.empty(),
+            PersistentMultiMap.empty(),
+            PersistentMultiMap.empty(),
+            PersistentMultiMap.empty()
+         );
    
-      final Identifier identifier   = identifierIsAType.identifier();
-      final Type type               = identifierIsAType.type();
+      public boolean containsDirectIsMapping(final Identifier identifier, final Type type)
+      {
+      
+         return this.isInstances.containsMapping(identifier, type);
+      
+      }
    
-      DIRECT_MAPPING:
+      public boolean containsIndirectIsMapping(final Identifier identifier, final Type goal)
       {
       
-         if (this.containsDirectIsMapping(identifier, type))
+         return this.isInstances.get(identifier).anyMatch(directMapping -> this.isA(directMapping, goal));
+      
+      }
+   
+      public boolean isA(final Type subType, final Type superType)
+      {
+      
+         return subType.equals(superType) || this.typeAncestors.containsMapping(subType, superType);
+      
+      }
+   
+      //How the identifier came to be the goal -- one of its direct types, then each EVERY X IS Y rule followed, ending at the goal.
+      //A breadth first search, so the chain is as short as any other. The closure says which types lead to the goal at all, so
+      //only those are ever queued, and each type is queued at most once.
+      public Optional<KeyValueChain<Identifier, Type>> indirectIsMapping(final Identifier identifier, final Type goal)
+      {
+      
+         if (!this.containsIndirectIsMapping(identifier, goal))
+         {
+         
+            return Optional.empty();
+         
+         }
+      
+         //also the visited set -- a direct type is its own parent
+         final Map<Type, Type> parents = new HashMap<>();
+         final Queue<Type> queue = new ArrayDeque<>();
+      
+         for (final Type directType : this.isInstances.get(identifier).toList())
          {
          
-            return new PutResponse.DirectMappingAlreadyExists();
+            if (this.isA(directType, goal) && parents.putIfAbsent(directType, directType) == null)
+            {
+            
+               queue.add(directType);
+            
+            }
          
          }
       
+         while (!queue.isEmpty())
+         {
+         
+            final Type currentType = queue.remove();
+         
+            if (currentType.equals(goal))
+            {
+            
+               return Optional.of(new KeyValueChain<>(identifier, this.chainTo(goal, parents)));
+            
+            }
+         
+            for (final Type superType : this.isRules.get(new FrequencyType(Frequency.EVERY, currentType)).toList())
+            {
+            
+               if (this.isA(superType, goal) && parents.putIfAbsent(superType, currentType) == null)
+               {
+               
+                  queue.add(superType);
+               
+               }
+            
+            }
+         
+         }
+      
+         //unreachable while the closure agrees with the rules
+         return Optional.empty();
+      
       }
    
-      INDIRECT_MAPPING:
+      private ValueChain<Type> chainTo(final Type goal, final Map<Type, Type> parents)
       {
       
-      //final ValueChain
+         ValueChain<Type> output = new ValueChain.ConsCell<>(goal, new ValueChain.ConsEmpty<>());
+      
+         Type currentType = goal;
       
-         if (this.containsIndirectIsMapping(identifier, type))
+         while (!parents.get(currentType).equals(currentType))
          {
          
-            return new PutResponse.IndirectMappingAlreadyExists(null);
+            currentType = parents.get(currentType);
+            output = new ValueChain.ConsCell<>(currentType, output);
          
          }
       
+         return output;
+      
       }
    
-      this.isInstances.add(identifier, type);
-   
-      return new PutResponse.NewDirectMappingCreated();
-   
    }
 
-   private boolean containsDirectIsMapping(final Identifier identifier, final Type type)
+   //Only ever changed under the write lock -- readers go through the published Snapshot instead
+   private PersistentMultiMap<Identifier,     Type>          isInstances    = PersistentMultiMap.empty();
+   private PersistentMultiMap<FrequencyType,  Type>          isRules        = PersistentMultiMap.empty();
+   private PersistentMultiMap<Identifier,     QuantityType>  hasInstances   = PersistentMultiMap.empty();
+   private PersistentMultiMap<FrequencyType,  QuantityType>  hasRules       = PersistentMultiMap.empty();
+
+   private PersistentMultiMap<Type, Type> typeAncestors    = PersistentMultiMap.empty();
+   private PersistentMultiMap<Type, Type> typeDescendants  = PersistentMultiMap.empty();
+
+   private volatile Snapshot current = Snapshot.EMPTY;
+
+   //Every put checks the maps before changing them, so each one holds the write lock from start to end
+   private final StampedLock lock = new StampedLock();
+
+   //The latest version -- it never changes, no matter what is put afterwards
+   public RulesEngine_Attempt2.Snapshot snapshot()
    {
    
-      return this.isInstances.containsMapping(identifier, type);
+      return this.current;
    
    }
 
-   private boolean containsIndirectIsMapping(final Identifier identifier, final Type goal)
+   public RulesEngine_Attempt2.PutResponse put(final IdentifierIsAType identifierIsAType)
    {
    
-      final List<Type> mappingsToAttempt = new ArrayList<>();
-   
-      final int mappingsToAttemptIndex = 0;
+      Objects.requireNonNull(identifierIsAType);
    
-      final Set<Type> directMappings = this.isInstances.get(identifier).orElse(Set.of());
+      final long stamp = this.lock.writeLock();
    
-      mappingsToAttempt.addAll(directMappings);
+      try
+      {
+      
+         final Identifier identifier   = identifierIsAType.identifier();
+         final Type type               = identifierIsAType.type();
+      
+         final Snapshot snapshot = this.current;
+      
+         DIRECT_MAPPING:
+         {
+         
+            if (snapshot.containsDirectIsMapping(identifier, type))
+            {
+            
+               return new PutResponse.DirectMappingAlreadyExists();
+            
+            }
+         
+         }
+      
+         INDIRECT_MAPPING:
+         {
+         
+            final Optional<KeyValueChain<Identifier, Type>> derivation = snapshot.indirectIsMapping(identifier, type);
+         
+            if (derivation.isPresent())
+            {
+            
+               return new PutResponse.IndirectMappingAlreadyExists(derivation.get());
+            
+            }
+         
+         }
+      
+         this.isInstances = this.isInstances.plus(identifier, type);
+      
+         this.publish();
+      
+         return new PutResponse.NewDirectMappingCreated();
+      
+      }
    
-      return this.recursiveIndirectIsMapping(identifier, goal, mappingsToAttempt, mappingsToAttemptIndex);
+      finally
+      {
+      
+         this.lock.unlockWrite(stamp);
+      
+      }
    
    }
 
-   private boolean recursiveIndirectIsMapping
-   (
-      final Identifier identifier,
-      final Type goal,
-      final List<Type> mappingsToAttempt,
-      final int mappingsToAttemptIndex
-   )
+   public MultiMap.PutResponse put(final FrequencyTypeIsType frequencyTypeIsType)
    {
    
-      if (mappingsToAttemptIndex >= mappingsToAttempt.size())
+      Objects.requireNonNull(frequencyTypeIsType);
+   
+      final long stamp = this.lock.writeLock();
+   
+      try
+      {
+      
+         final FrequencyType frequencyType   = frequencyTypeIsType.frequencyType();
+         final Type type                     = frequencyTypeIsType.type();
+      
+         if (this.isRules.containsMapping(frequencyType, type))
+         {
+         
+            return new MultiMap.PutResponse.RequestedMappingAlreadyExists();
+         
+         }
+      
+         this.isRules = this.isRules.plus(frequencyType, type);
+      
+         if (frequencyType.frequency() == Frequency.EVERY)
+         {
+         
+            this.addTypeRule(frequencyType.type(), type);
+         
+         }
+      
+         this.publish();
+      
+         return new MultiMap.PutResponse.NewMappingCreated();
+      
+      }
+   
+      finally
       {
       
-         return false;
+         this.lock.unlockWrite(stamp);
       
       }
    
-      final Type currentType = mappingsToAttempt.get(mappingsToAttemptIndex);
+   }
+
+   //Same incremental closure as TypeHierarchy.add, but over persistent maps, so old snapshots keep their hierarchy
+   private void addTypeRule(final Type subType, final Type superType)
+   {
    
-      if (goal.equals(currentType))
+      if (subType.equals(superType) || this.typeAncestors.containsMapping(subType, superType))
       {
       
-         return true;
+         return;
       
       }
    
-      final FrequencyType potentialIsMappingKey = new FrequencyType(Frequency.EVERY, currentType);
-   
-      final Set<Type> currentTypeIsMappings =
-         this
-            .isRules
-            .get(potentialIsMappingKey)
-            .orElse(Set.of())
-            ;
+      final List<Type> newAncestors = this.typeAncestors.get(superType).plus(superType).toList();
+      final List<Type> affectedTypes = this.typeDescendants.get(subType).plus(subType).toList();
    
-      for (final Type eachCurrentTypeIsMapping : currentTypeIsMappings)
+      for (final Type affectedType : affectedTypes)
       {
       
-         if (!mappingsToAttempt.contains(eachCurrentTypeIsMapping))
+         for (final Type newAncestor : newAncestors)
          {
          
-            mappingsToAttempt.add(eachCurrentTypeIsMapping);
+            this.typeAncestors = this.typeAncestors.plus(affectedType, newAncestor);
+            this.typeDescendants = this.typeDescendants.plus(newAncestor, affectedType);
          
          }
       
       }
    
-      return this.recursiveIndirectIsMapping(identifier, goal, mappingsToAttempt, mappingsToAttemptIndex + 1);
+   }
+
+   private void publish()
+   {
+   
+      this.current =
+         new Snapshot
+         (
+            this.current.version() + 1,
+            this.isInstances,
+            this.isRules,
+            this.hasInstances,
+            this.hasRules,
+            this.typeAncestors,
+            this.typeDescendants
+         );
    
    }
 
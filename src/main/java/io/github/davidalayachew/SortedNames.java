@@ -0,0 +1,144 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+
+//An immutable, sorted run of names -- every name in a SymbolTable, or just the ones starting with some prefix.
+//Narrowing to a prefix is two binary searches, and shares the same array, so even hundreds of thousands of names
+//can be filtered on every keystroke.
+
+public final class SortedNames
+{
+
+   public static final SortedNames EMPTY = new SortedNames(new String[0], 0, 0);
+
+   private final String[] names;
+   private final int from;
+   private final int to;
+
+   private SortedNames(final String[] names, final int from, final int to)
+   {
+   
+      this.names = names;
+      this.from = from;
+      this.to = to;
+   
+   }
+
+   //These names, along with the new ones -- only the new ones get sorted, and are then merged in
+   public SortedNames plus(final String[] newNames)
+   {
+   
+      if (newNames.length == 0)
+      {
+      
+         return this;
+      
+      }
+   
+      final String[] sortedNewNames = newNames.clone();
+   
+      Arrays.sort(sortedNewNames);
+   
+      final String[] output = new String[this.size() + sortedNewNames.length];
+   
+      int count = 0;
+      int left = this.from;
+      int right = 0;
+   
+      while (left < this.to || right < sortedNewNames.length)
+      {
+      
+         if (right == sortedNewNames.length || (left < this.to && this.names[left].compareTo(sortedNewNames[right]) <= 0))
+         {
+         
+            output[count++] = this.names[left++];
+         
+         }
+      
+         else
+         {
+         
+            output[count++] = sortedNewNames[right++];
+         
+         }
+      
+      }
+   
+      return new SortedNames(output, 0, output.length);
+   
+   }
+
+   //Every one of these names that starts with the prefix, still sorted
+   public SortedNames withPrefix(final String prefix)
+   {
+   
+      if (prefix.isEmpty())
+      {
+      
+         return this;
+      
+      }
+   
+      //Character.MAX_VALUE sorts after anything a name could go on to, so this is just past the last name with the prefix
+      final int start = this.lowerBound(prefix);
+      final int end = this.lowerBound(prefix + Character.MAX_VALUE);
+   
+      return new SortedNames(this.names, start, end);
+   
+   }
+
+   public int size()
+   {
+   
+      return this.to - this.from;
+   
+   }
+
+   public String get(final int index)
+   {
+   
+      if (index < 0 || index >= this.size())
+      {
+      
+         throw new IndexOutOfBoundsException(index);
+      
+      }
+   
+      return this.names[this.from + index];
+   
+   }
+
+   //index into the whole array of the first name that is not before the key
+   private int lowerBound(final String key)
+   {
+   
+      int low = this.from;
+      int high = this.to;
+   
+      while (low < high)
+      {
+      
+         final int middle = (low + high) >>> 1;
+      
+         if (this.names[middle].compareTo(key) < 0)
+         {
+         
+            low = middle + 1;
+         
+         }
+      
+         else
+         {
+         
+            high = middle;
+         
+         }
+      
+      }
+   
+      return low;
+   
+   }
+
+}
@@ -0,0 +1,151 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+
+//Interns names into dense ids -- 0, 1, 2, ... -- in the order they were first seen.
+//The engine stores ids everywhere, and only turns them back into names at the edge.
+
+public class SymbolTable
+{
+
+   public static final int NOT_FOUND = -1;
+
+   private static final int EMPTY_SLOT = 0;
+   private static final int NO_SLOT = -1;
+
+   private String[] names = new String[16];
+
+   //open addressing, each slot holds (id + 1), so that 0 can mean empty
+   private int[] slots = new int[32];
+
+   private int size = 0;
+
+   public int intern(final String name)
+   {
+   
+      final int slot = slotOf(this.slots, this.names, name);
+   
+      if (this.slots[slot] != EMPTY_SLOT)
+      {
+      
+         return this.slots[slot] - 1;
+      
+      }
+   
+      final int id = this.size++;
+   
+      if (id == this.names.length)
+      {
+      
+         this.names = Arrays.copyOf(this.names, id * 2);
+      
+      }
+   
+      this.names[id] = name;
+      this.slots[slot] = id + 1;
+   
+      if (this.size * 2 > this.slots.length)
+      {
+      
+         this.rehash();
+      
+      }
+   
+      return id;
+   
+   }
+
+   public int idOf(final String name)
+   {
+   
+      final int[] slots = this.slots;
+      final int slot = slotOf(slots, this.names, name);
+   
+      return slot == NO_SLOT ? NOT_FOUND : slots[slot] - 1;
+   
+   }
+
+   public String nameOf(final int id)
+   {
+   
+      if (id < 0 || id >= this.size)
+      {
+      
+         throw new IndexOutOfBoundsException(id);
+      
+      }
+   
+      return this.names[id];
+   
+   }
+
+   public int size()
+   {
+   
+      return this.size;
+   
+   }
+
+   //Probes give up after going round the whole table once, for the same reason as in IntSet
+   private static int slotOf(final int[] slots, final String[] names, final String name)
+   {
+   
+      final int mask = slots.length - 1;
+   
+      int slot = mix(name.hashCode()) & mask;
+   
+      for (int probes = 0; probes < slots.length; probes++)
+      {
+      
+         if (slots[slot] == EMPTY_SLOT || names[slots[slot] - 1].equals(name))
+         {
+         
+            return slot;
+         
+         }
+      
+         slot = (slot + 1) & mask;
+      
+      }
+   
+      return NO_SLOT;
+   
+   }
+
+   private void rehash()
+   {
+   
+      final int[] newSlots = new int[this.slots.length * 2];
+      final int mask = newSlots.length - 1;
+   
+      for (int id = 0; id < this.size; id++)
+      {
+      
+         int slot = mix(this.names[id].hashCode()) & mask;
+      
+         while (newSlots[slot] != EMPTY_SLOT)
+         {
+         
+            slot = (slot + 1) & mask;
+         
+         }
+      
+         newSlots[slot] = id + 1;
+      
+      }
+   
+      this.slots = newSlots;
+   
+   }
+
+   static int mix(final int hash)
+   {
+   
+      final int spread = hash * 0x9E3779B9;
+   
+      return spread ^ (spread >>> 16);
+   
+   }
+
+}
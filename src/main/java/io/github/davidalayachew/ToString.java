@@ -1,9 +1,8 @@
 package io.github.davidalayachew;
 
-import java.lang.reflect.RecordComponent;
-import java.lang.reflect.InvocationTargetException;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
 
 public interface ToString
 {
@@ -11,57 +10,86 @@ public interface ToString
    default public String cleanString()
    {
    
-      String output = "";
+      final StringBuilder output = new StringBuilder();
    
-      if (this.getClass().isRecord())
+      try
       {
       
-         final RecordComponent[] components = this.getClass().getRecordComponents();
+         this.appendTo(output);
       
-         for (int i = 0; i < components.length; i++)
-         {
-         
-            output += this.componentToString(i, components[i]);
-            
-         }
+      }
+      
+      catch (IOException exception)
+      {
+      
+         //StringBuilder never throws
+         throw new UncheckedIOException(exception);
       
       }
    
-      return output;
+      return output.toString();
    
    }
 
-   private String componentToString(int i, RecordComponent each)
+   //Writes the same text as cleanString, but straight into the output, components that are ToString included
+   default public void appendTo(final Appendable output) throws IOException
    {
    
-      try
+      final MethodHandle[] accessors = RecordAccessors.of(this.getClass());
+   
+      for (int i = 0; i < accessors.length; i++)
       {
       
-         return (i == 0 ? "" : " ") + each.getAccessor().invoke(this);
+         if (i > 0)
+         {
+         
+            output.append(' ');
+         
+         }
+      
+         final Object component = this.component(accessors[i]);
       
-      }
-            
-      catch (IllegalAccessException | InvocationTargetException e)
-      {
-            
-         throw new IllegalArgumentException(e);
-            
-      }
+         if (component instanceof ToString toString)
+         {
+         
+            toString.appendTo(output);
+         
+         }
          
+         else
+         {
+         
+            output.append(String.valueOf(component));
+         
+         }
+      
+      }
    
    }
 
-   public static <T extends Enum<T>> String captureGroupForEnums(final T[] values)
+   private Object component(final MethodHandle accessor)
    {
    
-      return
-         "(" 
-         + Stream
-            .of(values)
-            .map(T::name)
-            .map(each -> each.replace('_', ' '))
-            .collect(Collectors.joining("|"))
-         + ")";
+      try
+      {
+      
+         return (Object) accessor.invokeExact((Object) this);
+      
+      }
+      
+      catch (RuntimeException | Error exception)
+      {
+      
+         throw exception;
+      
+      }
+      
+      catch (Throwable throwable)
+      {
+      
+         throw new IllegalArgumentException(throwable);
+      
+      }
    
    }
 
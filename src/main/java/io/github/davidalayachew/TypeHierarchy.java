@@ -0,0 +1,110 @@
+
+package io.github.davidalayachew;
+
+import java.util.Arrays;
+
+//Materialized transitive closure of every EVERY X IS Y rule, over type ids from a SymbolTable.
+//Each type knows all of its ancestors (and, to keep the index incremental, all of its descendants),
+//so answering "is X a Y" is a set lookup instead of a walk over the rules.
+
+public class TypeHierarchy
+{
+
+   private final IntAdjacency ancestors    = new IntAdjacency();
+   private final IntAdjacency descendants  = new IntAdjacency();
+
+   private int typeCount = 0;
+   private IntSet changedTypes = new IntSet();
+   private FrozenTypeHierarchy frozen = FrozenTypeHierarchy.EMPTY;
+
+   public boolean add(final int subType, final int superType)
+   {
+   
+      if (this.isA(subType, superType))
+      {
+      
+         return false;
+      
+      }
+   
+      this.typeCount = Math.max(this.typeCount, Math.max(subType, superType) + 1);
+   
+      final int[] newAncestors = append(this.ancestors.toArray(superType), superType);
+      final int[] affectedTypes = append(this.descendants.toArray(subType), subType);
+   
+      for (final int affectedType : affectedTypes)
+      {
+      
+         for (final int newAncestor : newAncestors)
+         {
+         
+            if (this.ancestors.add(affectedType, newAncestor))
+            {
+            
+               this.descendants.add(newAncestor, affectedType);
+               this.changedTypes.add(affectedType);
+            
+            }
+         
+         }
+      
+      }
+   
+      return true;
+   
+   }
+
+   public boolean isA(final int subType, final int superType)
+   {
+   
+      return subType == superType || this.ancestors.contains(subType, superType);
+   
+   }
+
+   public FrozenTypeHierarchy freeze()
+   {
+   
+      if (this.changedTypes.isEmpty())
+      {
+      
+         return this.frozen;
+      
+      }
+   
+      final CompressedBitSet[] rows = Arrays.copyOf(this.frozen.rows(), this.typeCount);
+   
+      this.changedTypes.forEach(type -> rows[type] = CompressedBitSet.of(this.ancestors.toArray(type)));
+   
+      this.frozen = new FrozenTypeHierarchy(rows);
+      this.changedTypes = new IntSet();
+   
+      return this.frozen;
+   
+   }
+
+   public int[] ancestorsOf(final int type)
+   {
+   
+      return this.ancestors.toArray(type);
+   
+   }
+
+   public int[] descendantsOf(final int type)
+   {
+   
+      return this.descendants.toArray(type);
+   
+   }
+
+   private static int[] append(final int[] array, final int value)
+   {
+   
+      final int[] output = Arrays.copyOf(array, array.length + 1);
+   
+      output[array.length] = value;
+   
+      return output;
+   
+   }
+
+}
@@ -0,0 +1,10 @@
+package io.github.davidalayachew;
+
+public record WhoIsAType(Type type) implements Parseable, ToString
+{
+
+   public String toString() {
+      return cleanString();
+   }
+
+}
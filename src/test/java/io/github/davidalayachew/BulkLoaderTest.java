@@ -0,0 +1,115 @@
+package io.github.davidalayachew;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class BulkLoaderTest
+{
+
+   @Test
+   public void testLoad() throws Exception
+   {
+   
+      final Path file = Files.createTempFile("rules", ".txt");
+   
+      try
+      {
+      
+         Files.writeString(file, "DAVID IS A PROGRAMMER\r\n\nevery programmer is a genius\nDAVID IS IS A GENIUS\n  EVERY GENIUS IS A WONDER  \nnonsense here now");
+      
+         final var rulesEngine = new HeadlessRulesEngine();
+      
+         //a tiny chunk size, so that chunks split in the middle of most lines
+         final var report = new BulkLoader(rulesEngine, ForkJoinPool.commonPool(), 5).load(file);
+      
+         Assert.assertEquals(6,                       report.lines());
+         Assert.assertEquals(2,                       report.errorCount());
+         Assert.assertEquals(List.of(new BulkLoader.LineError(4, "DAVID IS IS A GENIUS"), new BulkLoader.LineError(6, "NONSENSE HERE NOW")), report.errors());
+         Assert.assertEquals(Long.valueOf(3),         report.responses().get(Response.OK));
+      
+         Assert.assertEquals(Response.CORRECT,        rulesEngine.submit("IS DAVID A WONDER?"));
+      
+      }
+   
+      finally
+      {
+      
+         Files.delete(file);
+      
+      }
+   
+   }
+
+   @Test
+   public void testLoadIntoJournal() throws Exception
+   {
+   
+      final Path directory = Files.createTempDirectory("rules");
+      final Path file = directory.resolve("rules.txt");
+   
+      try
+      {
+      
+         Files.writeString(file, "DAVID IS A MAN\nDAVID IS A MAN\nEVERY MAN HAS 2 ARMS\nEVERY MAN HAS 2 ARMS\nDAVID HAS 1 HEART\nDAVID IS AN ARTIST\nDAVID IS A MAN\n");
+      
+         final long journalBytes;
+      
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory.resolve("data")))
+         {
+         
+            final var report = new BulkLoader(rulesEngine, ForkJoinPool.commonPool(), 16).load(file);
+         
+            Assert.assertEquals(Long.valueOf(7),      report.responses().get(Response.OK));
+         
+            journalBytes = Files.size(directory.resolve("data").resolve("journal.bin"));
+         
+         }
+      
+         //the same facts, each said once -- the duplicates above must not have been journaled
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory.resolve("once")))
+         {
+         
+            for (final String fact : List.of("DAVID IS A MAN", "EVERY MAN HAS 2 ARMS", "DAVID HAS 1 HEART", "DAVID IS AN ARTIST"))
+            {
+            
+               rulesEngine.submit(fact);
+            
+            }
+         
+            Assert.assertEquals(journalBytes,         Files.size(directory.resolve("once").resolve("journal.bin")));
+         
+         }
+      
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory.resolve("data")))
+         {
+         
+            Assert.assertEquals(Response.CORRECT,     rulesEngine.submit("IS DAVID AN ARTIST?"));
+            Assert.assertEquals("OK 2 ARMS",          rulesEngine.answer("HOW MANY ARMS DOES DAVID HAVE?"));
+         
+         }
+      
+      }
+   
+      finally
+      {
+      
+         try (final var paths = Files.walk(directory))
+         {
+         
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+         
+         }
+      
+      }
+   
+   }
+
+}
@@ -0,0 +1,69 @@
+
+package io.github.davidalayachew;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Optional;
+
+
+public class ClassParserTest
+{
+
+   private static final Identifier david  = new Identifier("DAVID");
+
+   private static final Type man          = new Type("MAN");
+   private static final Type mortal       = new Type("MORTAL");
+   private static final Type arms         = new Type("ARMS");
+
+   private static final FrequencyType everyMan = new FrequencyType(Frequency.EVERY, man);
+
+   private static final QuantityType twoArms = new QuantityType(new Quantity(2), arms);
+
+   @Test
+   public void testParse()
+   {
+   
+      Assert.assertEquals(Optional.of(new IdentifierIsAType(david, man)),              ClassParser.parse("DAVID IS A MAN"));
+      Assert.assertEquals(Optional.of(new IdentifierIsAType(david, man)),              ClassParser.parse("DAVID IS MAN"));
+      Assert.assertEquals(Optional.of(new IdentifierHasQuantityType(david, twoArms)),  ClassParser.parse("DAVID HAS 2 ARMS"));
+      Assert.assertEquals(Optional.of(new FrequencyTypeIsType(everyMan, mortal)),      ClassParser.parse("EVERY MAN IS A MORTAL"));
+      Assert.assertEquals(Optional.of(new FrequencyTypeHasQuantityType(everyMan, twoArms)), ClassParser.parse("EVERY MAN HAS 2 ARMS"));
+      Assert.assertEquals(Optional.of(new IsIdentifierAType(david, man)),              ClassParser.parse("IS DAVID A MAN?"));
+      Assert.assertEquals(Optional.of(new IsIdentifierAType(david, man)),              ClassParser.parse("IS DAVID AN MAN"));
+      Assert.assertEquals(Optional.of(new IsIdentifierAType(david, man)),              ClassParser.parse("DAVID IS A MAN?"));
+      Assert.assertEquals(Optional.of(new WhatIsIdentifier(david)),                    ClassParser.parse("WHAT IS DAVID?"));
+      Assert.assertEquals(Optional.of(new WhoIsAType(man)),                            ClassParser.parse("WHO IS A MAN?"));
+      Assert.assertEquals(Optional.of(new WhoIsAType(man)),                            ClassParser.parse("WHO IS MAN?"));
+      Assert.assertEquals(Optional.of(new HowManyTypeDoesIdentifierHave(arms, david)), ClassParser.parse("HOW MANY ARMS DOES DAVID HAVE?"));
+      Assert.assertEquals(Optional.of(twoArms),                                        ClassParser.parse("2 ARMS"));
+      Assert.assertEquals(Optional.of(everyMan),                                       ClassParser.parse("EVERY MAN"));
+   
+   }
+
+   @Test
+   public void testParseAmbiguous()
+   {
+   
+      Assert.assertEquals(Optional.of(david),                                                            ClassParser.parse("DAVID"));
+      Assert.assertEquals(Optional.of(new FrequencyTypeRelationship(everyMan, Relationship.IS_A)),      ClassParser.parse("EVERY MAN IS A"));
+      Assert.assertEquals(Optional.of(new IsIdentifierAType(new Identifier("IS"), man)),                ClassParser.parse("IS IS A MAN"));
+      Assert.assertEquals(Optional.of(new IdentifierIsAType(new Identifier("WHO"), man)),               ClassParser.parse("WHO IS A MAN"));
+   
+   }
+
+   @Test
+   public void testParseInvalid()
+   {
+   
+      Assert.assertEquals(Optional.empty(), ClassParser.parse(""));
+      Assert.assertEquals(Optional.empty(), ClassParser.parse("DAVID IS A MAN ?"));
+      Assert.assertEquals(Optional.empty(), ClassParser.parse("DAVID  IS A MAN"));
+      Assert.assertEquals(Optional.empty(), ClassParser.parse("DAVID IS A MAN_"));
+      Assert.assertEquals(Optional.empty(), ClassParser.parse("DAVID HAS 12345678 ARMS"));
+      Assert.assertEquals(Optional.empty(), ClassParser.parse("EVERY MAN IS A MORTAL?"));
+   
+   }
+
+}
@@ -0,0 +1,186 @@
+
+package io.github.davidalayachew;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class CompressedBitSetTest
+{
+
+   //one chunk holds the values sharing their top 16 bits
+   private static final int CHUNK = 1 << 16;
+
+   //the most values a chunk keeps as a sorted array -- CompressedBitSet.ARRAY_LIMIT
+   private static final int ARRAY_LIMIT = 4096;
+
+   @Test
+   public void testChunkBoundaries()
+   {
+
+      final CompressedBitSet set = CompressedBitSet.of(0, CHUNK - 1, CHUNK, CHUNK + 1, 2 * CHUNK - 1, 5 * CHUNK, Integer.MAX_VALUE);
+
+      Assert.assertArrayEquals(new int[] {0, CHUNK - 1, CHUNK, CHUNK + 1, 2 * CHUNK - 1, 5 * CHUNK, Integer.MAX_VALUE}, set.toArray());
+      Assert.assertEquals(7, set.cardinality());
+
+      Assert.assertTrue(set.contains(CHUNK - 1));
+      Assert.assertTrue(set.contains(CHUNK));
+      Assert.assertFalse(set.contains(CHUNK + 2));
+      Assert.assertFalse(set.contains(2 * CHUNK));
+      Assert.assertFalse(set.contains(4 * CHUNK));
+      Assert.assertFalse(set.contains(-1));
+      Assert.assertTrue(set.contains(Integer.MAX_VALUE));
+
+      //the same low 16 bits in another chunk is another value
+      Assert.assertFalse(CompressedBitSet.of(CHUNK + 7).contains(7));
+      Assert.assertFalse(CompressedBitSet.of(7).contains(CHUNK + 7));
+
+   }
+
+   @Test
+   public void testArrayToBitmap()
+   {
+
+      //either side of the switch, up to a full chunk -- 7 is odd, so the values never repeat within the chunk
+      for (final int size : new int[] {1, ARRAY_LIMIT - 1, ARRAY_LIMIT, ARRAY_LIMIT + 1, CHUNK - 1, CHUNK})
+      {
+
+         final int[] values = IntStream.range(0, size).map(index -> CHUNK + index * 7 % CHUNK).sorted().toArray();
+
+         final CompressedBitSet set = CompressedBitSet.of(values);
+
+         Assert.assertEquals(String.valueOf(size), values.length, set.cardinality());
+         Assert.assertArrayEquals(values, set.toArray());
+
+         for (final int value : values)
+         {
+
+            Assert.assertTrue(set.contains(value));
+
+         }
+
+         Assert.assertFalse(set.contains(CHUNK - 1));
+         Assert.assertFalse(set.contains(2 * CHUNK));
+
+      }
+
+      //duplicates do not count towards the limit
+      final int[] repeated = IntStream.range(0, 2 * ARRAY_LIMIT).map(index -> index % ARRAY_LIMIT).toArray();
+
+      Assert.assertEquals(ARRAY_LIMIT, CompressedBitSet.of(repeated).cardinality());
+
+   }
+
+   @Test
+   public void testOrMixedContainers()
+   {
+
+      final CompressedBitSet sparse = CompressedBitSet.of(IntStream.range(0, 100).map(index -> index * 3).toArray());
+      final CompressedBitSet otherSparse = CompressedBitSet.of(IntStream.range(0, 100).map(index -> index * 5).toArray());
+      final CompressedBitSet dense = CompressedBitSet.of(IntStream.range(0, ARRAY_LIMIT * 2).map(index -> index * 2).toArray());
+      final CompressedBitSet otherDense = CompressedBitSet.of(IntStream.range(0, ARRAY_LIMIT * 2).map(index -> index * 2 + 1).toArray());
+
+      //two arrays that only fit in a bitmap once they are put together
+      final CompressedBitSet halfBelow = CompressedBitSet.of(IntStream.range(0, ARRAY_LIMIT).map(index -> index * 2).toArray());
+      final CompressedBitSet halfAbove = CompressedBitSet.of(IntStream.range(0, ARRAY_LIMIT).map(index -> index * 2 + 1).toArray());
+
+      final CompressedBitSet[] sets = {sparse, otherSparse, dense, otherDense, halfBelow, halfAbove, CompressedBitSet.of(CHUNK, 3 * CHUNK), CompressedBitSet.EMPTY};
+
+      for (final CompressedBitSet left : sets)
+      {
+
+         for (final CompressedBitSet right : sets)
+         {
+
+            Assert.assertArrayEquals(union(left, right), left.or(right).toArray());
+
+         }
+
+      }
+
+      Assert.assertEquals(ARRAY_LIMIT * 2, halfBelow.or(halfAbove).cardinality());
+      Assert.assertEquals(ARRAY_LIMIT * 4, dense.or(otherDense).cardinality());
+      Assert.assertSame(sparse, sparse.or(CompressedBitSet.EMPTY));
+      Assert.assertSame(sparse, CompressedBitSet.EMPTY.or(sparse));
+
+   }
+
+   @Test
+   public void testSameAsTreeSet()
+   {
+
+      final Random random = new Random(3);
+
+      for (int round = 0; round < 50; round++)
+      {
+
+         //a few chunks, so that some end up sparse and some dense
+         final int[] left = random.ints(random.nextInt(3 * ARRAY_LIMIT), 0, 3 * CHUNK).toArray();
+         final int[] right = random.ints(random.nextInt(3 * ARRAY_LIMIT), CHUNK, 4 * CHUNK).toArray();
+
+         final CompressedBitSet set = CompressedBitSet.of(left).or(CompressedBitSet.of(right));
+
+         final TreeSet<Integer> expected = new TreeSet<>();
+
+         IntStream.of(left).forEach(expected::add);
+         IntStream.of(right).forEach(expected::add);
+
+         Assert.assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), set.toArray());
+         Assert.assertEquals(expected.size(), set.cardinality());
+
+         for (int probe = 0; probe < 1000; probe++)
+         {
+
+            final int value = random.nextInt(5 * CHUNK);
+
+            Assert.assertEquals(String.valueOf(value), expected.contains(value), set.contains(value));
+
+         }
+
+      }
+
+   }
+
+   @Test
+   public void testNegativeValues()
+   {
+
+      try
+      {
+
+         CompressedBitSet.of(3, -1);
+
+         Assert.fail("A negative value was accepted");
+
+      }
+
+      catch (final IllegalArgumentException expected)
+      {
+
+         //only non-negative ints fit in a chunk
+
+      }
+
+      Assert.assertTrue(CompressedBitSet.of().isEmpty());
+      Assert.assertFalse(CompressedBitSet.EMPTY.contains(0));
+
+   }
+
+   private static int[] union(final CompressedBitSet left, final CompressedBitSet right)
+   {
+
+      final TreeSet<Integer> output = new TreeSet<>();
+
+      left.forEach(output::add);
+      right.forEach(output::add);
+
+      return output.stream().mapToInt(Integer::intValue).toArray();
+
+   }
+
+}
@@ -0,0 +1,718 @@
+
+package io.github.davidalayachew;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class HeadlessRulesEngineTest
+{
+
+   @Test
+   public void testSubmit()
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      Assert.assertEquals(Response.UNKNOWN_IDENTIFIER,  rulesEngine.submit("is david a wonder?"));
+      Assert.assertEquals(Response.OK,                  rulesEngine.submit("David is an Artist"));
+      Assert.assertEquals(Response.UNKNOWN_TYPE,        rulesEngine.submit("is david a wonder?"));
+      Assert.assertEquals(Response.CORRECT,             rulesEngine.submit("is david an artist?"));
+   
+      Assert.assertEquals(Response.OK,                  rulesEngine.submit("EVERY ARTIST IS A GIFT"));
+      Assert.assertEquals(Response.OK,                  rulesEngine.submit("EVERY GIFT IS A BLESSING"));
+      Assert.assertEquals(Response.OK,                  rulesEngine.submit("EVERY BLESSING IS A WONDER"));
+   
+      Assert.assertEquals(Response.CORRECT,             rulesEngine.submit("IS DAVID A WONDER?"));
+      Assert.assertEquals(Response.CORRECT,             rulesEngine.submit("  DAVID   IS A   BLESSING?  "));
+      Assert.assertEquals(Response.CORRECT,             rulesEngine.processIsIdentifierAType(new IsIdentifierAType(new Identifier("DAVID"), new Type("GIFT"))));
+   
+   }
+
+   @Test
+   public void testSubmitFallThrough()
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("DAVID IS A PROGRAMMER");
+      rulesEngine.submit("EVERY ARTIST IS A GENIUS");
+   
+      Assert.assertEquals(Response.FALL_THROUGH,        rulesEngine.submit("IS DAVID A GENIUS?"));
+      Assert.assertEquals(Response.OK,                  rulesEngine.submit(ClassParser.parse("SARAH HAS 2 ARMS").orElseThrow()));
+      Assert.assertEquals(Response.IDENTIFIER_HAS_NO_RELATIONSHIPS, rulesEngine.submit("IS SARAH A GENIUS?"));
+      Assert.assertEquals(Response.INVALID_FORMAT,      rulesEngine.submit("DAVID IS IS A GENIUS"));
+   
+   }
+
+   @Test
+   public void testBatchQueries()
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("DAVID IS AN ARTIST");
+      rulesEngine.submit("DAVID IS A PROGRAMMER");
+      rulesEngine.submit("EVERY ARTIST IS A GIFT");
+      rulesEngine.submit("EVERY GIFT IS A BLESSING");
+      rulesEngine.submit("SARAH HAS 2 ARMS");
+      rulesEngine.submit("EVERY TEACHER IS A GENIUS");
+   
+      final List<IsIdentifierAType> questions = new ArrayList<>();
+   
+      for (final String identifier : List.of("DAVID", "SARAH", "JOHN"))
+      {
+      
+         for (final String type : List.of("ARTIST", "BLESSING", "PROGRAMMER", "GENIUS", "WONDER"))
+         {
+         
+            questions.add(new IsIdentifierAType(new Identifier(identifier), new Type(type)));
+         
+         }
+      
+      }
+   
+      final List<Response> expected = new ArrayList<>();
+   
+      for (final IsIdentifierAType question : questions)
+      {
+      
+         expected.add(rulesEngine.processIsIdentifierAType(question));
+      
+      }
+   
+      Assert.assertEquals(expected, rulesEngine.processIsIdentifierATypes(questions));
+      Assert.assertTrue(expected.containsAll(List.of(Response.CORRECT, Response.FALL_THROUGH, Response.UNKNOWN_TYPE, Response.UNKNOWN_IDENTIFIER, Response.IDENTIFIER_HAS_NO_RELATIONSHIPS)));
+   
+   }
+
+   @Test
+   public void testWhatAndWho()
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("DAVID IS AN ARTIST");
+      rulesEngine.submit("DAVID IS A PROGRAMMER");
+      rulesEngine.submit("SARAH IS A TEACHER");
+      rulesEngine.submit("JOHN IS A GIFT");
+      rulesEngine.submit("EVERY ARTIST IS A GIFT");
+      rulesEngine.submit("EVERY GIFT IS A BLESSING");
+      rulesEngine.submit("EVERY TEACHER IS A BLESSING");
+      rulesEngine.submit("EVERY LIAR IS A CROOK");
+      rulesEngine.submit("MARK HAS 2 ARMS");
+   
+      Assert.assertEquals("OK ARTIST BLESSING GIFT PROGRAMMER",   rulesEngine.answer("WHAT IS DAVID?"));
+      Assert.assertEquals("OK DAVID JOHN SARAH",                  rulesEngine.answer("WHO IS A BLESSING?"));
+      Assert.assertEquals("OK DAVID JOHN",                        rulesEngine.answer("who is a gift?"));
+      Assert.assertEquals("OK DAVID",                             rulesEngine.answer("WHO IS AN ARTIST?"));
+      Assert.assertEquals("FALL_THROUGH",                         rulesEngine.answer("WHO IS A CROOK?"));
+      Assert.assertEquals("UNKNOWN_TYPE",                         rulesEngine.answer("WHO IS A WONDER?"));
+      Assert.assertEquals("UNKNOWN_IDENTIFIER",                   rulesEngine.answer("WHAT IS PETER?"));
+      Assert.assertEquals("IDENTIFIER_HAS_NO_RELATIONSHIPS",      rulesEngine.answer("WHAT IS MARK?"));
+      Assert.assertEquals("CORRECT",                              rulesEngine.answer("IS DAVID A BLESSING?"));
+   
+      Assert.assertEquals
+      (
+         List.of(new Identifier("DAVID"), new Identifier("JOHN")),
+         rulesEngine.processWhoIsAType(new WhoIsAType(new Type("GIFT"))).elements()
+      );
+      Assert.assertEquals(Response.OK, rulesEngine.submit("WHAT IS SARAH?"));
+   
+   }
+
+   @Test
+   public void testHowMany()
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("EVERY MAN HAS 2 ARMS");
+      rulesEngine.submit("EVERY PROGRAMMER IS A MAN");
+      rulesEngine.submit("DAVID IS A PROGRAMMER");
+      rulesEngine.submit("SARAH IS A PROGRAMMER");
+      rulesEngine.submit("SARAH HAS 3 ARMS");
+      rulesEngine.submit("MARK IS A ROBOT");
+   
+      Assert.assertEquals("OK 2 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES DAVID HAVE?"));
+      Assert.assertEquals("OK 3 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES SARAH HAVE?"));
+      Assert.assertEquals("FALL_THROUGH",                         rulesEngine.answer("HOW MANY ARMS DOES MARK HAVE?"));
+      Assert.assertEquals("UNKNOWN_IDENTIFIER",                   rulesEngine.answer("HOW MANY ARMS DOES PETER HAVE?"));
+      Assert.assertEquals("UNKNOWN_TYPE",                         rulesEngine.answer("HOW MANY LEGS DOES DAVID HAVE?"));
+   
+      //the roll-ups worked out above have to follow every rule and hierarchy change after them
+      rulesEngine.submit("EVERY MAN HAS 4 ARMS");
+      rulesEngine.submit("EVERY ROBOT IS A MAN");
+   
+      Assert.assertEquals("OK 4 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES DAVID HAVE?"));
+      Assert.assertEquals("OK 4 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES MARK HAVE?"));
+   
+      rulesEngine.submit("EVERY PROGRAMMER HAS 1 ARMS");
+      rulesEngine.submit("EVERY ROBOT HAS 8 ARMS");
+      rulesEngine.submit("DAVID IS A ROBOT");
+   
+      Assert.assertEquals("OK 8 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES DAVID HAVE?"));
+      Assert.assertEquals("OK 3 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES SARAH HAVE?"));
+      Assert.assertEquals("OK 8 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES MARK HAVE?"));
+   
+      rulesEngine.submit("JOHN IS A PROGRAMMER");
+   
+      Assert.assertEquals("OK 1 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES JOHN HAVE?"));
+      Assert.assertEquals
+      (
+         List.of(new QuantityType(new Quantity(1), new Type("ARMS"))),
+         rulesEngine.processHowManyTypeDoesIdentifierHave(new HowManyTypeDoesIdentifierHave(new Type("ARMS"), new Identifier("JOHN"))).elements()
+      );
+   
+   }
+
+   @Test
+   public void testHowManyPicksTheMostSpecificRule()
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("EVERY MAN HAS 2 ARMS");
+      rulesEngine.submit("EVERY AMPUTEE HAS 1 ARMS");
+      rulesEngine.submit("EVERY AMPUTEE IS A MAN");
+   
+      //one direct type is a kind of the other, so its rule wins, even though the other one has the larger count
+      rulesEngine.submit("DAVID IS A MAN");
+      rulesEngine.submit("DAVID IS AN AMPUTEE");
+   
+      Assert.assertEquals("OK 1 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES DAVID HAVE?"));
+   
+      //MAN beats ROBOT on count, but AMPUTEE beats MAN on being more specific -- which leaves ROBOT, not AMPUTEE
+      rulesEngine.submit("EVERY MAN HAS 4 ARMS");
+      rulesEngine.submit("EVERY ROBOT HAS 3 ARMS");
+      rulesEngine.submit("EVERY CYBORG IS AN AMPUTEE");
+      rulesEngine.submit("EVERY CYBORG IS A ROBOT");
+      rulesEngine.submit("SARAH IS A CYBORG");
+   
+      Assert.assertEquals("OK 3 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES SARAH HAVE?"));
+      Assert.assertEquals("OK 1 ARMS",                            rulesEngine.answer("HOW MANY ARMS DOES DAVID HAVE?"));
+   
+   }
+
+   @Test
+   public void testForwardChaining()
+   {
+   
+      final var backward = new HeadlessRulesEngine();
+      final var forward = new HeadlessRulesEngine(true);
+   
+      final List<String> facts =
+         List.of
+         (
+            "DAVID IS A PROGRAMMER",
+            "EVERY MAN HAS 2 ARMS",
+            "EVERY PROGRAMMER IS A MAN",
+            "SARAH IS A TEACHER",
+            "SARAH HAS 3 ARMS",
+            "EVERY TEACHER IS A MAN",
+            "EVERY MAN IS A MORTAL",
+            "MARK IS A ROBOT",
+            "EVERY ROBOT HAS 8 ARMS",
+            "EVERY PROGRAMMER HAS 1 ARMS",
+            "EVERY MAN HAS 4 ARMS",
+            "EVERY MORTAL HAS 1 HEART",
+            "EVERY ROBOT IS A MORTAL",
+            "JOHN IS A MORTAL",
+            "LUKE IS A MAN",
+            "LUKE IS AN AMPUTEE",
+            "EVERY AMPUTEE HAS 1 ARMS",
+            "EVERY AMPUTEE IS A MAN",
+            "EVERY CYBORG IS A ROBOT",
+            "EVERY ROBOT HAS 3 ARMS",
+            "ANNA IS A CYBORG",
+            "EVERY CYBORG IS AN AMPUTEE"
+         );
+   
+      final List<String> questions =
+         List.of
+         (
+            "IS DAVID A MORTAL?",
+            "IS MARK A MAN?",
+            "IS PETER A MAN?",
+            "IS DAVID A WONDER?",
+            "WHAT IS DAVID?",
+            "WHAT IS MARK?",
+            "WHO IS A MORTAL?",
+            "WHO IS A MAN?",
+            "HOW MANY ARMS DOES DAVID HAVE?",
+            "HOW MANY ARMS DOES SARAH HAVE?",
+            "HOW MANY ARMS DOES MARK HAVE?",
+            "HOW MANY ARMS DOES JOHN HAVE?",
+            "HOW MANY HEART DOES MARK HAVE?",
+            "HOW MANY ARMS DOES LUKE HAVE?",
+            "HOW MANY ARMS DOES ANNA HAVE?"
+         );
+   
+      //the answers have to agree after every fact, not only once everything is in
+      for (final String fact : facts)
+      {
+      
+         Assert.assertEquals(backward.submit(fact), forward.submit(fact));
+      
+         for (final String question : questions)
+         {
+         
+            Assert.assertEquals(fact + " -- " + question, backward.answer(question), forward.answer(question));
+         
+         }
+      
+      }
+   
+      Assert.assertEquals("OK ANNA DAVID JOHN LUKE MARK SARAH",       forward.answer("WHO IS A MORTAL?"));
+      Assert.assertEquals("OK 1 ARMS",                                forward.answer("HOW MANY ARMS DOES DAVID HAVE?"));
+      Assert.assertEquals("OK 1 HEART",                               forward.answer("HOW MANY HEART DOES MARK HAVE?"));
+      Assert.assertEquals("OK 1 ARMS",                                forward.answer("HOW MANY ARMS DOES LUKE HAVE?"));
+      Assert.assertEquals("OK 3 ARMS",                                forward.answer("HOW MANY ARMS DOES ANNA HAVE?"));
+      Assert.assertEquals(Long.valueOf(21),                           forward.metrics().snapshot().sizes().get("derivedFacts"));
+   
+   }
+
+   @Test
+   public void testConcurrentQueries() throws Exception
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("DAVID IS AN ARTIST");
+      rulesEngine.submit("EVERY ARTIST IS A GENIUS");
+   
+      final ExecutorService executor = Executors.newFixedThreadPool(4);
+   
+      try
+      {
+      
+         final List<Future<?>> futures = new ArrayList<>();
+      
+         //one writer streaming in unrelated facts, while the others keep asking about the ones already there
+         futures.add(executor.submit(() ->
+         {
+         
+            for (int index = 0; index < 5_000; index++)
+            {
+            
+               rulesEngine.submit("PERSON" + index + " IS A TYPE" + index);
+               rulesEngine.submit("EVERY TYPE" + index + " IS A KIND" + (index % 10));
+            
+            }
+         
+         }));
+      
+         for (int reader = 0; reader < 3; reader++)
+         {
+         
+            futures.add(executor.submit((Callable<Void>) () ->
+            {
+            
+               for (int index = 0; index < 5_000; index++)
+               {
+               
+                  Assert.assertEquals(Response.CORRECT,  rulesEngine.submit("IS DAVID A GENIUS?"));
+                  Assert.assertEquals(Response.CORRECT,  rulesEngine.submit("IS DAVID AN ARTIST?"));
+               
+               }
+            
+               return null;
+            
+            }));
+         
+         }
+      
+         for (final Future<?> future : futures)
+         {
+         
+            future.get();
+         
+         }
+      
+      }
+   
+      finally
+      {
+      
+         executor.shutdown();
+      
+      }
+   
+      Assert.assertEquals(Response.CORRECT,        rulesEngine.submit("IS PERSON1234 A KIND4?"));
+   
+   }
+
+   @Test
+   public void testOptimisticReadsDuringRehash() throws Exception
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("DAVID IS A TYPE0");
+   
+      final ExecutorService executor = Executors.newFixedThreadPool(4);
+   
+      try
+      {
+      
+         final List<Future<?>> futures = new ArrayList<>();
+      
+         //every new type DAVID is grows the same row, the type table and the name table, so each of them keeps rehashing
+         //while the readers answer without the lock
+         futures.add(executor.submit(() ->
+         {
+         
+            for (int index = 1; index < 20_000; index++)
+            {
+            
+               rulesEngine.submit("DAVID IS A TYPE" + index);
+            
+            }
+         
+         }));
+      
+         for (int reader = 0; reader < 3; reader++)
+         {
+         
+            final int offset = reader;
+         
+            futures.add(executor.submit((Callable<Void>) () ->
+            {
+            
+               for (int index = 0; index < 20_000; index++)
+               {
+               
+                  final Response response = rulesEngine.submit("IS DAVID A TYPE" + (index * 3 + offset) % 20_000 + "?");
+               
+                  Assert.assertTrue(response.toString(), response == Response.CORRECT || response == Response.UNKNOWN_TYPE);
+               
+               }
+            
+               return null;
+            
+            }));
+         
+         }
+      
+         for (final Future<?> future : futures)
+         {
+         
+            future.get(30, TimeUnit.SECONDS);
+         
+         }
+      
+      }
+   
+      finally
+      {
+      
+         executor.shutdownNow();
+      
+      }
+   
+      Assert.assertEquals(Response.CORRECT,        rulesEngine.submit("IS DAVID A TYPE19999?"));
+   
+   }
+
+   @Test
+   public void testReadsWhileTheHierarchyChanges() throws Exception
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("DAVID IS A TYPE0");
+   
+      final ExecutorService executor = Executors.newFixedThreadPool(4);
+   
+      try
+      {
+      
+         final List<Future<?>> futures = new ArrayList<>();
+      
+         //every rule changes the hierarchy, so the frozen one is forever catching up, and the readers keep switching
+         //between answering from it and answering from the live one under the read lock
+         futures.add(executor.submit(() ->
+         {
+         
+            for (int index = 1; index < 2_000; index++)
+            {
+            
+               rulesEngine.submit("EVERY TYPE" + (index - 1) + " IS A TYPE" + index);
+            
+            }
+         
+         }));
+      
+         for (int reader = 0; reader < 3; reader++)
+         {
+         
+            final int offset = reader;
+         
+            futures.add(executor.submit((Callable<Void>) () ->
+            {
+            
+               for (int index = 0; index < 2_000; index++)
+               {
+               
+                  final IsIdentifierAType isQuery = new IsIdentifierAType(new Identifier("DAVID"), new Type("TYPE" + (index * 3 + offset) % 2_000));
+               
+                  final Response response = rulesEngine.processIsIdentifierAType(isQuery);
+               
+                  Assert.assertTrue(response.toString(), response == Response.CORRECT || response == Response.UNKNOWN_TYPE);
+               
+                  //facts are only ever added, so asking again later can only be as right or more
+                  if (response == Response.CORRECT)
+                  {
+                  
+                     Assert.assertEquals(Response.CORRECT, rulesEngine.processIsIdentifierATypes(List.of(isQuery)).get(0));
+                  
+                  }
+               
+               }
+            
+               return null;
+            
+            }));
+         
+         }
+      
+         for (final Future<?> future : futures)
+         {
+         
+            future.get(30, TimeUnit.SECONDS);
+         
+         }
+      
+      }
+   
+      finally
+      {
+      
+         executor.shutdownNow();
+      
+      }
+   
+      Assert.assertEquals(Response.CORRECT,        rulesEngine.submit("IS DAVID A TYPE1999?"));
+      Assert.assertEquals(List.of(Response.CORRECT, Response.UNKNOWN_TYPE), rulesEngine.processIsIdentifierATypes(List.of(new IsIdentifierAType(new Identifier("DAVID"), new Type("TYPE1000")), new IsIdentifierAType(new Identifier("DAVID"), new Type("TYPE2000")))));
+   
+   }
+
+   @Test
+   public void testJournalAndCheckpoint() throws Exception
+   {
+   
+      final Path directory = Files.createTempDirectory("rules");
+   
+      try
+      {
+      
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory))
+         {
+         
+            Assert.assertEquals(Response.OK,         rulesEngine.submit("DAVID IS AN ARTIST"));
+            Assert.assertEquals(Response.OK,         rulesEngine.submit("EVERY ARTIST IS A GIFT"));
+            Assert.assertEquals(Response.OK,         rulesEngine.submit("SARAH HAS 2 ARMS"));
+            Assert.assertEquals(Response.OK,         rulesEngine.submit("EVERY GIFT HAS 3 WISHES"));
+         
+         }
+      
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory))
+         {
+         
+            Assert.assertEquals(Response.CORRECT,    rulesEngine.submit("IS DAVID A GIFT?"));
+         
+            rulesEngine.checkpoint();
+         
+            Assert.assertEquals(0,                   Files.size(directory.resolve("journal.bin")));
+            Assert.assertFalse(Files.exists(directory.resolve("journal.retired.bin")));
+            Assert.assertEquals(Response.OK,         rulesEngine.submit("EVERY GIFT IS A BLESSING"));
+         
+         }
+      
+         //half of a record, as if we crashed in the middle of writing it
+         Files.write(directory.resolve("journal.bin"), new byte[] {40, 2, 'D'}, StandardOpenOption.APPEND);
+      
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory))
+         {
+         
+            Assert.assertEquals(Response.CORRECT,    rulesEngine.submit("IS DAVID A BLESSING?"));
+            Assert.assertEquals(Response.IDENTIFIER_HAS_NO_RELATIONSHIPS, rulesEngine.submit("IS SARAH A GIFT?"));
+            Assert.assertEquals("OK 3 WISHES",       rulesEngine.answer("HOW MANY WISHES DOES DAVID HAVE?"));
+         
+         }
+      
+      }
+   
+      finally
+      {
+      
+         try (final var paths = Files.walk(directory))
+         {
+         
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+         
+         }
+      
+      }
+   
+   }
+
+   @Test
+   public void testUnfinishedCheckpoint() throws Exception
+   {
+   
+      final Path directory = Files.createTempDirectory("rules");
+   
+      //longer than the buffers the journal is read through, so a record has to be read in more than one go
+      final String longName = "A".repeat(100_000);
+   
+      try
+      {
+      
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory))
+         {
+         
+            for (int index = 0; index < 10_000; index++)
+            {
+            
+               rulesEngine.submit("DAVID IS A TYPE" + index);
+            
+            }
+         
+            Assert.assertEquals(Response.OK,         rulesEngine.submit("EVERY TYPE9999 IS A " + longName));
+         
+         }
+      
+         //as if we crashed after a checkpoint set the journal aside, but before the checkpoint was written
+         Files.move(directory.resolve("journal.bin"), directory.resolve("journal.retired.bin"));
+      
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory))
+         {
+         
+            Assert.assertEquals(Response.CORRECT,    rulesEngine.submit("IS DAVID A " + longName + "?"));
+            Assert.assertEquals(Response.OK,         rulesEngine.submit("SARAH IS A TYPE0"));
+         
+         }
+      
+         //and crashed again, this time half way through a record at the end of the retired journal
+         Files.write(directory.resolve("journal.retired.bin"), new byte[] {40, 2, 'D'}, StandardOpenOption.APPEND);
+      
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory))
+         {
+         
+            Assert.assertEquals(Response.CORRECT,    rulesEngine.submit("IS DAVID A TYPE5000?"));
+            Assert.assertEquals(Response.CORRECT,    rulesEngine.submit("IS SARAH A TYPE0?"));
+            Assert.assertEquals(Response.OK,         rulesEngine.submit("SARAH IS A TYPE1"));
+         
+            //the retired journal is carried on, not replaced, and only goes once the checkpoint is written
+            rulesEngine.checkpoint();
+         
+            Assert.assertFalse(Files.exists(directory.resolve("journal.retired.bin")));
+            Assert.assertEquals(0,                   Files.size(directory.resolve("journal.bin")));
+         
+         }
+      
+         try (final var rulesEngine = HeadlessRulesEngine.open(directory))
+         {
+         
+            Assert.assertEquals(Response.CORRECT,    rulesEngine.submit("IS DAVID A " + longName + "?"));
+            Assert.assertEquals(Response.CORRECT,    rulesEngine.submit("IS SARAH A TYPE1?"));
+            Assert.assertEquals(Response.CORRECT,    rulesEngine.submit("IS DAVID A TYPE9999?"));
+         
+         }
+      
+      }
+   
+      finally
+      {
+      
+         try (final var paths = Files.walk(directory))
+         {
+         
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+         
+         }
+      
+      }
+   
+   }
+
+   @Test
+   public void testMetrics()
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("DAVID IS AN ARTIST");
+      rulesEngine.submit("DAVID IS AN ARTIST");
+      rulesEngine.submit("EVERY ARTIST IS A GENIUS");
+      rulesEngine.submit("DAVID HAS 2 ARMS");
+      rulesEngine.submit("IS DAVID A GENIUS?");
+      rulesEngine.submit("IS SARAH A GENIUS?");
+      rulesEngine.submit("DAVID IS IS A GENIUS");
+   
+      final EngineMetrics.Snapshot snapshot = rulesEngine.metrics().snapshot();
+   
+      Assert.assertEquals(Long.valueOf(2),   snapshot.parseableCounts().get("IdentifierIsAType"));
+      Assert.assertEquals(Long.valueOf(2),   snapshot.parseableCounts().get("IsIdentifierAType"));
+      Assert.assertEquals(Long.valueOf(4),   snapshot.responseCounts().get(Response.OK));
+      Assert.assertEquals(Long.valueOf(1),   snapshot.responseCounts().get(Response.CORRECT));
+      Assert.assertEquals(Long.valueOf(1),   snapshot.responseCounts().get(Response.UNKNOWN_IDENTIFIER));
+   
+      Assert.assertEquals(7,                 snapshot.parseLatency().count());
+      Assert.assertEquals(4,                 snapshot.applyLatency().count());
+      Assert.assertEquals(2,                 snapshot.queryLatency().count());
+      Assert.assertEquals(2,                 snapshot.nodesVisited().count());
+      Assert.assertEquals(1,                 snapshot.nodesVisited().max());
+   
+      Assert.assertEquals(Long.valueOf(1),   snapshot.sizes().get("isInstances"));
+      Assert.assertEquals(Long.valueOf(1),   snapshot.sizes().get("isRules"));
+      Assert.assertEquals(Long.valueOf(1),   snapshot.sizes().get("hasInstances"));
+      Assert.assertEquals(Long.valueOf(0),   snapshot.sizes().get("hasRules"));
+   
+   }
+
+   @Test
+   public void testQueryCache()
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("DAVID IS AN ARTIST");
+      rulesEngine.submit("EVERY GIFT IS A BLESSING");
+   
+      Assert.assertEquals(Response.FALL_THROUGH,        rulesEngine.submit("IS DAVID A BLESSING?"));
+      Assert.assertEquals(Response.FALL_THROUGH,        rulesEngine.submit("IS DAVID A BLESSING?"));
+      Assert.assertEquals(1,                            rulesEngine.metrics().snapshot().cacheHits());
+      Assert.assertEquals(1,                            rulesEngine.metrics().snapshot().cacheMisses());
+   
+      //a fact already known changes nothing, so the cached answer still stands
+      rulesEngine.submit("DAVID IS AN ARTIST");
+      Assert.assertEquals(Response.FALL_THROUGH,        rulesEngine.submit("IS DAVID A BLESSING?"));
+      Assert.assertEquals(2,                            rulesEngine.metrics().snapshot().cacheHits());
+   
+      rulesEngine.submit("EVERY ARTIST IS A GIFT");
+      Assert.assertEquals(Response.CORRECT,             rulesEngine.submit("IS DAVID A BLESSING?"));
+      Assert.assertEquals(2,                            rulesEngine.metrics().snapshot().cacheHits());
+      Assert.assertEquals(2,                            rulesEngine.metrics().snapshot().cacheMisses());
+   
+      Assert.assertEquals(Response.UNKNOWN_IDENTIFIER,  rulesEngine.submit("IS SARAH A BLESSING?"));
+      rulesEngine.submit("SARAH HAS 2 ARMS");
+      Assert.assertEquals(Response.IDENTIFIER_HAS_NO_RELATIONSHIPS, rulesEngine.submit("IS SARAH A BLESSING?"));
+   
+   }
+
+}
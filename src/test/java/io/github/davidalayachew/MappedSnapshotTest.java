@@ -0,0 +1,92 @@
+package io.github.davidalayachew;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class MappedSnapshotTest
+{
+
+   @Test
+   public void testSameAnswersAsEngine() throws Exception
+   {
+   
+      final Path file = Files.createTempFile("snapshot", ".bin");
+   
+      try
+      {
+      
+         final var rulesEngine = new HeadlessRulesEngine();
+         final Random random = new Random(7);
+      
+         for (int index = 0; index < 500; index++)
+         {
+         
+            switch (random.nextInt(4))
+            {
+            
+               case 0   -> rulesEngine.submit("PERSON" + random.nextInt(50) + " IS A TYPE" + random.nextInt(40));
+               case 1   -> rulesEngine.submit("EVERY TYPE" + random.nextInt(40) + " IS A TYPE" + random.nextInt(40));
+               case 2   -> rulesEngine.submit("EVERY TYPE" + random.nextInt(40) + " HAS " + (1 + random.nextInt(5)) + " TYPE" + random.nextInt(45));
+               default  -> rulesEngine.submit("PERSON" + random.nextInt(60) + " HAS 2 TYPE" + random.nextInt(45));
+            
+            }
+         
+         }
+      
+         rulesEngine.writeSnapshot(file);
+      
+         final MappedSnapshot snapshot = MappedSnapshot.open(file);
+      
+         for (int person = 0; person < 65; person++)
+         {
+         
+            for (int type = 0; type < 50; type++)
+            {
+            
+               final String question = "IS PERSON" + person + " A TYPE" + type + "?";
+            
+               Assert.assertEquals(question, rulesEngine.submit(question), snapshot.submit(question));
+            
+               final String howMany = "HOW MANY TYPE" + type + " DOES PERSON" + person + " HAVE?";
+            
+               Assert.assertEquals(howMany, rulesEngine.answer(howMany), snapshot.answer(howMany));
+            
+            }
+         
+            final String what = "WHAT IS PERSON" + person + "?";
+         
+            Assert.assertEquals(what, rulesEngine.answer(what), snapshot.answer(what));
+         
+         }
+      
+         for (int type = 0; type < 50; type++)
+         {
+         
+            final String who = "WHO IS A TYPE" + type + "?";
+         
+            Assert.assertEquals(who, rulesEngine.answer(who), snapshot.answer(who));
+         
+         }
+      
+         Assert.assertEquals(Response.READ_ONLY, snapshot.submit("PERSON1 IS A TYPE1"));
+         Assert.assertEquals(Response.READ_ONLY, snapshot.submit("EVERY TYPE1 HAS 2 TYPE2"));
+         Assert.assertEquals(Response.INVALID_FORMAT, snapshot.submit("DAVID IS IS A GENIUS"));
+      
+      }
+   
+      finally
+      {
+      
+         Files.delete(file);
+      
+      }
+   
+   }
+
+}
@@ -0,0 +1,49 @@
+
+package io.github.davidalayachew;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+
+public class MultiMapTest
+{
+
+   private static final Identifier david  = new Identifier("DAVID");
+   private static final Identifier sarah  = new Identifier("SARAH");
+
+   private static final Type artist       = new Type("ARTIST");
+   private static final Type programmer   = new Type("PROGRAMMER");
+
+   @Test
+   public void testReverseIndex()
+   {
+   
+      for (final MultiMap<Identifier, Type> multiMap : List.<MultiMap<Identifier, Type>>of(new MultiMap<>(), MultiMap.withReverseIndex()))
+      {
+      
+         multiMap.add(david, artist);
+         multiMap.add(david, programmer);
+         multiMap.add(sarah, artist);
+      
+         Assert.assertTrue(multiMap.containsValue(artist));
+         Assert.assertEquals(Set.of(david, sarah), multiMap.keysFor(artist));
+         Assert.assertEquals(Set.of(david), multiMap.keysFor(programmer));
+         Assert.assertEquals(2, multiMap.valueCount());
+      
+         Assert.assertTrue(multiMap.remove(david, programmer));
+         Assert.assertFalse(multiMap.remove(david, programmer));
+      
+         Assert.assertFalse(multiMap.containsValue(programmer));
+         Assert.assertEquals(Set.of(), multiMap.keysFor(programmer));
+         Assert.assertEquals(1, multiMap.valueCount());
+         Assert.assertTrue(multiMap.containsMapping(david, artist));
+      
+      }
+   
+   }
+
+}
@@ -0,0 +1,90 @@
+package io.github.davidalayachew;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+
+public class PersistentMapTest
+{
+
+   //only 16 different hash codes, so most keys end up in CollisionNodes
+   private record BadHash(int value)
+   {
+   
+      @Override
+      public int hashCode()
+      {
+      
+         return this.value % 16;
+      
+      }
+   
+   }
+
+   @Test
+   public void testAgainstHashMap()
+   {
+   
+      final Random random = new Random(42);
+   
+      final Map<BadHash, Integer> expected = new HashMap<>();
+   
+      PersistentMap<BadHash, Integer> actual = PersistentMap.empty();
+   
+      for (int index = 0; index < 20_000; index++)
+      {
+      
+         final BadHash key = new BadHash(random.nextInt(2_000));
+      
+         if (random.nextInt(3) == 0)
+         {
+         
+            expected.remove(key);
+            actual = actual.minus(key);
+         
+         }
+      
+         else
+         {
+         
+            expected.put(key, index);
+            actual = actual.plus(key, index);
+         
+         }
+      
+         Assert.assertEquals(expected.size(), actual.size());
+         Assert.assertEquals(expected.get(key), actual.get(key));
+      
+      }
+   
+      final Map<BadHash, Integer> copy = new HashMap<>();
+   
+      actual.forEach(copy::put);
+   
+      Assert.assertEquals(expected, copy);
+   
+   }
+
+   @Test
+   public void testOldVersionsUnchanged()
+   {
+   
+      final PersistentMap<String, Integer> before = PersistentMap.<String, Integer>empty().plus("DAVID", 1).plus("SARAH", 2);
+      final PersistentMap<String, Integer> after = before.plus("DAVID", 3).minus("SARAH");
+   
+      Assert.assertEquals(Integer.valueOf(1), before.get("DAVID"));
+      Assert.assertEquals(Integer.valueOf(2), before.get("SARAH"));
+      Assert.assertEquals(Integer.valueOf(3), after.get("DAVID"));
+      Assert.assertFalse(after.containsKey("SARAH"));
+   
+      Assert.assertSame(before, before.plus("DAVID", 1));
+      Assert.assertSame(before, before.minus("ANYONE"));
+   
+   }
+
+}
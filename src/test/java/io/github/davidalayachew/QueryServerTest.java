@@ -0,0 +1,118 @@
+
+package io.github.davidalayachew;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class QueryServerTest
+{
+
+   @Test
+   public void testPipelinedRequests() throws Exception
+   {
+   
+      try (final QueryServer server = new QueryServer(new HeadlessRulesEngine(), 0))
+      {
+      
+         server.start();
+      
+         Assert.assertEquals
+         (
+            List.of("OK", "OK", "CORRECT", "UNKNOWN_IDENTIFIER", "INVALID_FORMAT"),
+            ask(server, "DAVID IS AN ARTIST", "EVERY ARTIST IS A GIFT", "is david a gift?", "IS SARAH A GIFT?", "DAVID IS IS A GIFT")
+         );
+      
+         //facts from one connection are answered on the next
+         Assert.assertEquals(List.of("CORRECT", "OK ARTIST GIFT"), ask(server, "IS DAVID AN ARTIST?", "WHAT IS DAVID?"));
+      
+      }
+   
+   }
+
+   @Test
+   public void testManyClients() throws Exception
+   {
+   
+      final var engine = new HeadlessRulesEngine();
+   
+      engine.submit("DAVID IS AN ARTIST");
+      engine.submit("EVERY ARTIST IS A GENIUS");
+   
+      try
+      (
+         final QueryServer server = new QueryServer(engine, 0);
+         final ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+      )
+      {
+      
+         server.start();
+      
+         final List<Future<List<String>>> futures = new ArrayList<>();
+      
+         for (int client = 0; client < 100; client++)
+         {
+         
+            final Callable<List<String>> conversation = () -> ask(server, "IS DAVID A GENIUS?", "IS DAVID AN ARTIST?");
+         
+            futures.add(clients.submit(conversation));
+         
+         }
+      
+         for (final Future<List<String>> future : futures)
+         {
+         
+            Assert.assertEquals(List.of("CORRECT", "CORRECT"), future.get());
+         
+         }
+      
+      }
+   
+   }
+
+   //Sends every line before reading a single answer
+   private static List<String> ask(final QueryServer server, final String... lines) throws Exception
+   {
+   
+      try
+      (
+         final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.port());
+         final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      )
+      {
+      
+         final OutputStream output = socket.getOutputStream();
+      
+         output.write((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+         output.flush();
+      
+         final List<String> answers = new ArrayList<>();
+      
+         for (int index = 0; index < lines.length; index++)
+         {
+         
+            answers.add(reader.readLine());
+         
+         }
+      
+         return answers;
+      
+      }
+   
+   }
+
+}
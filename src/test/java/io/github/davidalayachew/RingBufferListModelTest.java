@@ -0,0 +1,105 @@
+
+package io.github.davidalayachew;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class RingBufferListModelTest
+{
+
+   @Test
+   public void testNewestFirst()
+   {
+   
+      final var model = new RingBufferListModel<String>(3);
+   
+      model.add("A");
+      model.add("B");
+   
+      Assert.assertEquals(List.of("B", "A"), contentsOf(model));
+   
+      model.addAll(List.of("C", "D"));
+   
+      Assert.assertEquals(List.of("D", "C", "B"), contentsOf(model));
+   
+      //more than fits -- only the newest survive
+      model.addAll(List.of("E", "F", "G", "H"));
+   
+      Assert.assertEquals(List.of("H", "G", "F"), contentsOf(model));
+   
+      model.clear();
+   
+      Assert.assertEquals(List.of(), contentsOf(model));
+   
+      model.add("I");
+   
+      Assert.assertEquals(List.of("I"), contentsOf(model));
+   
+   }
+
+   @Test
+   public void testEvents()
+   {
+   
+      final var model = new RingBufferListModel<String>(3);
+      final List<String> events = new ArrayList<>();
+   
+      model.addListDataListener(
+         new ListDataListener()
+         {
+         
+            public void intervalAdded(final ListDataEvent event)
+            {
+            
+               events.add("added " + event.getIndex0() + "-" + event.getIndex1());
+            
+            }
+         
+            public void intervalRemoved(final ListDataEvent event)
+            {
+            
+               events.add("removed " + event.getIndex0() + "-" + event.getIndex1());
+            
+            }
+         
+            public void contentsChanged(final ListDataEvent event)
+            {
+            
+               events.add("changed");
+            
+            }
+         
+         });
+   
+      model.addAll(List.of("A", "B"));
+      model.addAll(List.of("C", "D"));
+      model.clear();
+   
+      Assert.assertEquals(List.of("added 0-1", "removed 1-1", "added 0-1", "removed 0-2"), events);
+   
+   }
+
+   private static List<String> contentsOf(final RingBufferListModel<String> model)
+   {
+   
+      final List<String> output = new ArrayList<>();
+   
+      for (int index = 0; index < model.getSize(); index++)
+      {
+      
+         output.add(model.getElementAt(index));
+      
+      }
+   
+      return output;
+   
+   }
+
+}
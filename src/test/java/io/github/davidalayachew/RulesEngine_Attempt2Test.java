@@ -1,6 +1,8 @@
 
 package io.github.davidalayachew;
 
+import java.util.Optional;
+
 import org.junit.Assert;
 import static org.junit.Assert.*;
 import org.junit.Test;
@@ -51,4 +53,105 @@ public class RulesEngine_Attempt2Test
    
    }
 
+   @Test
+   public void testPutIndirect()
+   {
+   
+      final var rulesEngine = new RulesEngine_Attempt2();
+   
+      rulesEngine.put(everyArtistIsAGift);
+      rulesEngine.put(everyGiftIsABlessing);
+   
+      Assert.assertEquals(SUCCESS, rulesEngine.put(davidIsAnArtist));
+      Assert.assertTrue(rulesEngine.put(new IdentifierIsAType(david, gift)) instanceof RulesEngine_Attempt2.PutResponse.IndirectMappingAlreadyExists);
+      Assert.assertTrue(rulesEngine.put(new IdentifierIsAType(david, blessing)) instanceof RulesEngine_Attempt2.PutResponse.IndirectMappingAlreadyExists);
+      Assert.assertEquals(SUCCESS, rulesEngine.put(new IdentifierIsAType(david, treasure)));
+   
+   }
+
+   @Test
+   public void testPutIndirectChain()
+   {
+   
+      final var rulesEngine = new RulesEngine_Attempt2();
+   
+      rulesEngine.put(everyArtistIsAGift);
+      rulesEngine.put(everyArtistIsAGenius);
+      rulesEngine.put(everyGiftIsATreasure);
+      rulesEngine.put(everyGiftIsABlessing);
+      rulesEngine.put(new FrequencyTypeIsType(everyBlessing, wonder));
+      rulesEngine.put(davidIsAProgrammer);
+      rulesEngine.put(davidIsAnArtist);
+   
+      final ValueChain<Type> artistGiftBlessingWonder =
+         new ValueChain.ConsCell<>(artist,
+         new ValueChain.ConsCell<>(gift,
+         new ValueChain.ConsCell<>(blessing,
+         new ValueChain.ConsCell<>(wonder,
+         new ValueChain.ConsEmpty<>()))));
+   
+      Assert.assertEquals
+      (
+         new RulesEngine_Attempt2.PutResponse.IndirectMappingAlreadyExists(new KeyValueChain<>(david, artistGiftBlessingWonder)),
+         rulesEngine.put(new IdentifierIsAType(david, wonder))
+      );
+   
+      Assert.assertEquals(Optional.empty(), rulesEngine.snapshot().indirectIsMapping(david, opportunity));
+   
+   }
+
+   @Test
+   public void testPutIndirectLongChain()
+   {
+   
+      final var rulesEngine = new RulesEngine_Attempt2();
+   
+      final int length = 1_000;
+   
+      for (int index = 0; index < length; index++)
+      {
+      
+         rulesEngine.put(new FrequencyTypeIsType(new FrequencyType(Frequency.EVERY, new Type("TYPE" + index)), new Type("TYPE" + (index + 1))));
+      
+      }
+   
+      rulesEngine.put(new IdentifierIsAType(david, new Type("TYPE0")));
+   
+      final RulesEngine_Attempt2.PutResponse response = rulesEngine.put(new IdentifierIsAType(david, new Type("TYPE" + length)));
+   
+      Assert.assertTrue(response instanceof RulesEngine_Attempt2.PutResponse.IndirectMappingAlreadyExists);
+      Assert.assertEquals(length + 1, ((RulesEngine_Attempt2.PutResponse.IndirectMappingAlreadyExists) response).keyValueChain().flatten().getValue().size());
+   
+   }
+
+   @Test
+   public void testSnapshot()
+   {
+   
+      final var rulesEngine = new RulesEngine_Attempt2();
+   
+      rulesEngine.put(davidIsAnArtist);
+   
+      final RulesEngine_Attempt2.Snapshot before = rulesEngine.snapshot();
+   
+      rulesEngine.put(everyArtistIsAGift);
+      rulesEngine.put(everyGiftIsABlessing);
+      rulesEngine.put(davidIsAProgrammer);
+   
+      final RulesEngine_Attempt2.Snapshot after = rulesEngine.snapshot();
+   
+      Assert.assertFalse(before.containsIndirectIsMapping(david, blessing));
+      Assert.assertFalse(before.containsDirectIsMapping(david, programmer));
+      Assert.assertTrue(after.containsIndirectIsMapping(david, blessing));
+      Assert.assertTrue(after.containsDirectIsMapping(david, programmer));
+   
+      Assert.assertEquals(before.version() + 3, after.version());
+      Assert.assertSame(after, rulesEngine.snapshot());
+   
+      //nothing new, so no new version
+      rulesEngine.put(davidIsAProgrammer);
+      Assert.assertSame(after, rulesEngine.snapshot());
+   
+   }
+
 }
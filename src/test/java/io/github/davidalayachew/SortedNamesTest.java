@@ -0,0 +1,81 @@
+
+package io.github.davidalayachew;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class SortedNamesTest
+{
+
+   @Test
+   public void testPlus()
+   {
+   
+      final SortedNames first = SortedNames.EMPTY.plus(new String[] {"DAVID", "ARTIST", "GIFT"});
+      final SortedNames second = first.plus(new String[] {"BLESSING", "DAVE", "ZEBRA"});
+   
+      Assert.assertEquals(List.of("ARTIST", "DAVID", "GIFT"), namesOf(first));
+      Assert.assertEquals(List.of("ARTIST", "BLESSING", "DAVE", "DAVID", "GIFT", "ZEBRA"), namesOf(second));
+      Assert.assertSame(second, second.plus(new String[0]));
+   
+   }
+
+   @Test
+   public void testWithPrefix()
+   {
+   
+      final SortedNames names = SortedNames.EMPTY.plus(new String[] {"DAVID", "DAVE", "DAVIDSON", "DA", "DB", "CZ", "ARTIST"});
+   
+      Assert.assertEquals(List.of("DAVE", "DAVID", "DAVIDSON"),    namesOf(names.withPrefix("DAV")));
+      Assert.assertEquals(List.of("DAVID", "DAVIDSON"),            namesOf(names.withPrefix("DAVID")));
+      Assert.assertEquals(List.of("DAVIDSON"),                     namesOf(names.withPrefix("DAV").withPrefix("DAVIDS")));
+      Assert.assertEquals(List.of(),                               namesOf(names.withPrefix("DC")));
+      Assert.assertEquals(List.of(),                               namesOf(names.withPrefix("ZZ")));
+      Assert.assertSame(names,                                     names.withPrefix(""));
+   
+   }
+
+   @Test
+   public void testEngineNames()
+   {
+   
+      final var rulesEngine = new HeadlessRulesEngine();
+   
+      rulesEngine.submit("DAVID IS AN ARTIST");
+      rulesEngine.submit("IS SARAH AN ARTIST?");
+   
+      final SortedNames before = rulesEngine.identifierNames();
+   
+      Assert.assertEquals(List.of("DAVID"), namesOf(before));
+      Assert.assertSame(before, rulesEngine.identifierNames());
+   
+      rulesEngine.submit("DAVE HAS 2 ARMS");
+      rulesEngine.submit("EVERY ARTIST IS A GIFT");
+   
+      Assert.assertEquals(List.of("DAVE", "DAVID"), namesOf(rulesEngine.identifierNames()));
+      Assert.assertEquals(List.of("ARMS", "ARTIST", "GIFT"), namesOf(rulesEngine.typeNames()));
+   
+   }
+
+   private static List<String> namesOf(final SortedNames names)
+   {
+   
+      final List<String> output = new ArrayList<>();
+   
+      for (int index = 0; index < names.size(); index++)
+      {
+      
+         output.add(names.get(index));
+      
+      }
+   
+      return output;
+   
+   }
+
+}